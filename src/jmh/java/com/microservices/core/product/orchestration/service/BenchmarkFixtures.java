@@ -0,0 +1,73 @@
+package com.microservices.core.product.orchestration.service;
+
+import com.microservices.core.product.orchestration.service.dto.PageInfoDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.RecommendationSummaryDTO;
+import com.microservices.core.product.orchestration.service.dto.ReviewSummaryDTO;
+import com.microservices.core.product.orchestration.service.dto.ServiceAddressesDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.RecommendationDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.stream.LongStream;
+
+public class BenchmarkFixtures {
+
+    public static final Long PRODUCT_ID = 1L;
+
+    private static final String CONTENT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.";
+
+    private BenchmarkFixtures() {
+
+    }
+
+    public static ProductDTO buildProduct() {
+        return new ProductDTO(PRODUCT_ID, "Product name", 100, "product-service/10.0.0.1:7001");
+    }
+
+    public static List<ReviewDTO> buildReviews(int size) {
+        return LongStream.rangeClosed(1, size)
+                .mapToObj(reviewId -> new ReviewDTO(reviewId, PRODUCT_ID, "Author " + reviewId, "Subject " + reviewId, CONTENT, "review-service/10.0.0.2:7002"))
+                .toList();
+    }
+
+    public static List<RecommendationDTO> buildRecommendations(int size) {
+        return LongStream.rangeClosed(1, size)
+                .mapToObj(recommendationId -> new RecommendationDTO(recommendationId, PRODUCT_ID, "Author " + recommendationId, (int) (recommendationId % 5), CONTENT, "recommendation-service/10.0.0.3:7003"))
+                .toList();
+    }
+
+    public static ProductAggregateDTO buildProductAggregate(int size) {
+        List<ReviewSummaryDTO> reviewSummaries = buildReviews(size).stream()
+                .map(reviewDTO -> new ReviewSummaryDTO(reviewDTO.reviewId(), reviewDTO.author(), reviewDTO.subject(), reviewDTO.content()))
+                .toList();
+        List<RecommendationSummaryDTO> recommendationSummaries = buildRecommendations(size).stream()
+                .map(recommendationDTO -> new RecommendationSummaryDTO(recommendationDTO.recommendationId(), recommendationDTO.author(), recommendationDTO.rating(), recommendationDTO.content()))
+                .toList();
+
+        return ProductAggregateDTO.builder()
+                .productId(PRODUCT_ID)
+                .name("Product name")
+                .weight(100)
+                .reviewSummaries(reviewSummaries)
+                .recommendationSummaries(recommendationSummaries)
+                .serviceAddresses(new ServiceAddressesDTO("orchestration/10.0.0.0:7000", "product-service/10.0.0.1:7001", "review-service/10.0.0.2:7002", "recommendation-service/10.0.0.3:7003"))
+                .warnings(List.of())
+                .reviewPage(new PageInfoDTO(0, size, size, false, (long) size))
+                .recommendationPage(new PageInfoDTO(0, size, size, false, (long) size))
+                .build();
+    }
+
+    // The services use field injection, the benchmarks wire them without a Spring context.
+    public static void setField(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Unable to set field: " + fieldName, ex);
+        }
+    }
+}
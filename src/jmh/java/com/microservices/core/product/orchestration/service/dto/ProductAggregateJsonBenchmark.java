@@ -0,0 +1,54 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.microservices.core.product.orchestration.service.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductAggregateJsonBenchmark {
+
+    @Param({"0", "10", "100", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private ProductAggregateDTO productAggregate;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        writer = objectMapper.writerFor(ProductAggregateDTO.class);
+        reader = objectMapper.readerFor(ProductAggregateDTO.class);
+
+        productAggregate = BenchmarkFixtures.buildProductAggregate(size);
+        json = writer.writeValueAsBytes(productAggregate);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(productAggregate);
+    }
+
+    @Benchmark
+    public ProductAggregateDTO decode() throws IOException {
+        return reader.readValue(json);
+    }
+}
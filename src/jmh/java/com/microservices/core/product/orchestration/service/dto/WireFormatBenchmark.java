@@ -0,0 +1,78 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.microservices.core.product.orchestration.service.BenchmarkFixtures;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Compares JSON and Smile for the aggregate sent to the clients and the review list received from review-service.
+// The payload sizes are printed once per trial, run with -PjmhIncludes=WireFormatBenchmark to see them next to the scores.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectWriter aggregateWriter;
+
+    private ObjectReader aggregateReader;
+
+    private ObjectReader reviewsReader;
+
+    private ProductAggregateDTO productAggregate;
+
+    private byte[] aggregateBytes;
+
+    private byte[] reviewsBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = "smile".equals(format) ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+
+        aggregateWriter = objectMapper.writerFor(ProductAggregateDTO.class);
+        aggregateReader = objectMapper.readerFor(ProductAggregateDTO.class);
+        reviewsReader = objectMapper.readerFor(new TypeReference<List<ReviewDTO>>() {});
+
+        productAggregate = BenchmarkFixtures.buildProductAggregate(size);
+        aggregateBytes = aggregateWriter.writeValueAsBytes(productAggregate);
+        reviewsBytes = objectMapper.writeValueAsBytes(BenchmarkFixtures.buildReviews(size));
+
+        System.out.printf("%n%s with %d items: aggregate %d bytes, reviews %d bytes%n", format, size, aggregateBytes.length, reviewsBytes.length);
+    }
+
+    @Benchmark
+    public byte[] encodeAggregate() throws IOException {
+        return aggregateWriter.writeValueAsBytes(productAggregate);
+    }
+
+    @Benchmark
+    public ProductAggregateDTO decodeAggregate() throws IOException {
+        return aggregateReader.readValue(aggregateBytes);
+    }
+
+    @Benchmark
+    public List<ReviewDTO> decodeReviews() throws IOException {
+        return reviewsReader.readValue(reviewsBytes);
+    }
+}
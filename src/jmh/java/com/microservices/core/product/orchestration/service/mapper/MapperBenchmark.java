@@ -0,0 +1,83 @@
+package com.microservices.core.product.orchestration.service.mapper;
+
+import com.microservices.core.product.orchestration.service.BenchmarkFixtures;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.RecommendationSummaryDTO;
+import com.microservices.core.product.orchestration.service.dto.ReviewSummaryDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.RecommendationDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapperBenchmark {
+
+    private final ProductMapper productMapper = Mappers.getMapper(ProductMapper.class);
+
+    private final ReviewMapper reviewMapper = Mappers.getMapper(ReviewMapper.class);
+
+    private final RecommendationMapper recommendationMapper = Mappers.getMapper(RecommendationMapper.class);
+
+    private ProductDTO product;
+
+    private ProductAggregateDTO productAggregate;
+
+    private ReviewDTO review;
+
+    private ReviewSummaryDTO reviewSummary;
+
+    private RecommendationDTO recommendation;
+
+    private RecommendationSummaryDTO recommendationSummary;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkFixtures.buildProduct();
+        productAggregate = BenchmarkFixtures.buildProductAggregate(1);
+        review = BenchmarkFixtures.buildReviews(1).get(0);
+        reviewSummary = productAggregate.reviewSummaries().get(0);
+        recommendation = BenchmarkFixtures.buildRecommendations(1).get(0);
+        recommendationSummary = productAggregate.recommendationSummaries().get(0);
+    }
+
+    @Benchmark
+    public ProductDTO productAggregateToProduct() {
+        return productMapper.mapAtoB(productAggregate);
+    }
+
+    @Benchmark
+    public ProductAggregateDTO productToProductAggregate() {
+        return productMapper.mapBtoA(product);
+    }
+
+    @Benchmark
+    public ReviewDTO reviewSummaryToReview() {
+        return reviewMapper.mapAtoB(reviewSummary, product);
+    }
+
+    @Benchmark
+    public ReviewSummaryDTO reviewToReviewSummary() {
+        return reviewMapper.mapBtoA(review);
+    }
+
+    @Benchmark
+    public RecommendationDTO recommendationSummaryToRecommendation() {
+        return recommendationMapper.mapAtoB(recommendationSummary, product);
+    }
+
+    @Benchmark
+    public RecommendationSummaryDTO recommendationToRecommendationSummary() {
+        return recommendationMapper.mapBtoA(recommendation);
+    }
+}
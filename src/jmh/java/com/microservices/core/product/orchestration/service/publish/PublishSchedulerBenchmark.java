@@ -0,0 +1,100 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import com.microservices.core.product.orchestration.service.config.CappedVirtualThreadExecutor;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Compares the publish scheduler on a bounded elastic pool (the default, app.threadPoolSize and app.taskQueueSize) with
+// capped virtual threads (app.virtualThreads.enabled). Each invocation is a burst of blocking sends, as StreamBridge.send
+// does them, all subscribed at once. Both reject the sends beyond their backlog, the task queue of the bounded elastic pool
+// or the waiting tasks of the virtual threads. The sent and rejected counters are reported next to the burst throughput,
+// run with -PjmhIncludes=PublishSchedulerBenchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PublishSchedulerBenchmark {
+
+    @Param({"bounded-elastic", "virtual"})
+    private String scheduler;
+
+    // Threads of the bounded elastic pool, or sends running at once on virtual threads.
+    @Param({"10", "100"})
+    private int concurrency;
+
+    // Task queue size of the bounded elastic pool, or tasks waiting for a free slot on virtual threads.
+    @Param({"100", "1000"})
+    private int backlog;
+
+    @Param({"500"})
+    private int burstSize;
+
+    @Param({"1"})
+    private long sendMillis;
+
+    private Scheduler publishScheduler;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class SendCounters {
+
+        public long sent;
+
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            sent = 0;
+            rejected = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        publishScheduler = "virtual".equals(scheduler)
+                ? Schedulers.fromExecutorService(new CappedVirtualThreadExecutor("publish-pool", concurrency, backlog), "publish-pool")
+                : Schedulers.newBoundedElastic(concurrency, backlog, "publish-pool");
+    }
+
+    @TearDown
+    public void tearDown() {
+        publishScheduler.dispose();
+    }
+
+    @Benchmark
+    public void burst(SendCounters counters) {
+        Long sent = Flux.range(0, burstSize)
+                .flatMap(i -> Mono.fromRunnable(this::send)
+                        .subscribeOn(publishScheduler)
+                        .thenReturn(1L)
+                        .onErrorResume(RejectedExecutionException.class, ex -> Mono.just(0L)), burstSize)
+                .reduce(0L, Long::sum)
+                .block();
+
+        counters.sent += sent;
+        counters.rejected += burstSize - sent;
+    }
+
+    private void send() {
+        try {
+            Thread.sleep(sendMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.microservices.core.product.orchestration.service.remote;
+
+import com.microservices.core.product.orchestration.service.BenchmarkFixtures;
+import com.microservices.core.product.orchestration.service.dto.AggregateSection;
+import com.microservices.core.product.orchestration.service.dto.PageInfoDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.mapper.RecommendationMapper;
+import com.microservices.core.product.orchestration.service.mapper.ReviewMapper;
+import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.RecommendationDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import com.microservices.core.util.http.ServiceUtil;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductAggregateAssemblyBenchmark {
+
+    @Param({"0", "10", "100", "1000"})
+    private int size;
+
+    private MethodHandle buildProductAggregate;
+
+    private IntegrationService integrationService;
+
+    private ProductDTO product;
+
+    private List<ReviewDTO> reviews;
+
+    private List<RecommendationDTO> recommendations;
+
+    private PageInfoDTO page;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        ReviewService reviewService = new ReviewService();
+        BenchmarkFixtures.setField(reviewService, "reviewMapper", Mappers.getMapper(ReviewMapper.class));
+
+        RecommendationService recommendationService = new RecommendationService();
+        BenchmarkFixtures.setField(recommendationService, "recommendationMapper", Mappers.getMapper(RecommendationMapper.class));
+
+        ServiceUtil serviceUtil = Mockito.mock(ServiceUtil.class, Mockito.withSettings().stubOnly());
+        Mockito.when(serviceUtil.getAddress()).thenReturn("orchestration/10.0.0.0:7000");
+
+        integrationService = new IntegrationService();
+        BenchmarkFixtures.setField(integrationService, "reviewService", reviewService);
+        BenchmarkFixtures.setField(integrationService, "recommendationService", recommendationService);
+        BenchmarkFixtures.setField(integrationService, "serviceUtil", serviceUtil);
+
+        buildProductAggregate = MethodHandles.privateLookupIn(IntegrationService.class, MethodHandles.lookup())
+                .findVirtual(IntegrationService.class, "buildProductAggregate", MethodType.methodType(ProductAggregateDTO.class,
+                        Long.class, ProductDTO.class, List.class, List.class, Set.class, PageInfoDTO.class, PageInfoDTO.class, List.class));
+
+        product = BenchmarkFixtures.buildProduct();
+        reviews = BenchmarkFixtures.buildReviews(size);
+        recommendations = BenchmarkFixtures.buildRecommendations(size);
+        page = new PageInfoDTO(0, size, size, false, (long) size);
+    }
+
+    @Benchmark
+    public ProductAggregateDTO buildProductAggregate() throws Throwable {
+        return (ProductAggregateDTO) buildProductAggregate.invokeExact(integrationService, BenchmarkFixtures.PRODUCT_ID, product, reviews, recommendations, AggregateSection.ALL, page, page, List.of());
+    }
+}
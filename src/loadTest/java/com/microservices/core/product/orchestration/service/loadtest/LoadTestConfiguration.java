@@ -0,0 +1,30 @@
+package com.microservices.core.product.orchestration.service.loadtest;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+// Replaces Kafka by the in-memory test binder, the authorization server by the local issuer and service discovery by the stubs.
+@Configuration
+@Profile("loadtest")
+@Import(TestChannelBinderConfiguration.class)
+public class LoadTestConfiguration {
+
+    @Bean
+    @Primary
+    public ReactiveJwtDecoder loadTestJwtDecoder(LocalJwtIssuer localJwtIssuer) {
+        return localJwtIssuer.jwtDecoder();
+    }
+
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder webClientBuilder() {
+        return WebClient.builder();
+    }
+}
@@ -0,0 +1,113 @@
+package com.microservices.core.product.orchestration.service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.ProductOrchestrationServiceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Hooks;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Options (system properties):
+//   loadtest.rate                      requests per second, default 200
+//   loadtest.warmup / loadtest.duration ISO-8601 durations, default PT10S / PT30S
+//   loadtest.products                  number of distinct product IDs requested, default 100
+//   loadtest.path                      request path template, default /product-orchestration/%d
+//   loadtest.maxConnections            client connection pool size, default 512
+//   loadtest.histogramFile             optional HdrHistogram percentile distribution output file
+//   loadtest.h2c                       talk h2c to the downstream services, default false
+//   loadtest.stub.<product|review|recommendation>.baseLatency / meanJitter / errorRate / items
+@Slf4j
+public class LoadTestRunner {
+
+    private static final List<String> SERVICES = List.of("product", "review", "recommendation");
+
+    public static void main(String[] args) throws Exception {
+        Hooks.enableAutomaticContextPropagation();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, StubDownstreamServer> stubs = new HashMap<>();
+
+        for(String service : SERVICES) {
+            stubs.put(service, new StubDownstreamServer(service + "-service", StubDownstreamServer.StubProfile.fromSystemProperties(service), objectMapper).start());
+        }
+
+        LocalJwtIssuer localJwtIssuer = new LocalJwtIssuer();
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ProductOrchestrationServiceApplication.class, LoadTestConfiguration.class)
+                .profiles("loadtest")
+                .initializers(applicationContext -> applicationContext.getBeanFactory().registerSingleton("localJwtIssuer", localJwtIssuer))
+                .properties(buildProperties(stubs))
+                .run(args);
+
+        OpenLoopLoadGenerator loadGenerator = null;
+
+        try {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            int products = Integer.getInteger("loadtest.products", 100);
+            String pathTemplate = System.getProperty("loadtest.path", "/product-orchestration/%d");
+
+            List<String> paths = IntStream.rangeClosed(1, products).mapToObj(pathTemplate::formatted).toList();
+            String token = localJwtIssuer.issueToken("product:read product:write", Duration.ofHours(1));
+
+            loadGenerator = new OpenLoopLoadGenerator("http://localhost:" + port, token, paths, Integer.getInteger("loadtest.maxConnections", 512));
+
+            OpenLoopLoadGenerator.Result result = loadGenerator.run(
+                    Integer.getInteger("loadtest.rate", 200),
+                    Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                    Duration.parse(System.getProperty("loadtest.duration", "PT30S")));
+
+            result.print(System.out, "GET " + pathTemplate);
+            stubs.values().forEach(stub -> System.out.printf("%s: %d requests over %d connections%n", stub.getName(), stub.getRequests(), stub.getConnections()));
+
+            writeHistogram(result);
+        } finally {
+            if(loadGenerator != null) {
+                loadGenerator.close();
+            }
+            context.close();
+            stubs.values().forEach(StubDownstreamServer::stop);
+        }
+    }
+
+    static Map<String, Object> buildProperties(Map<String, StubDownstreamServer> stubs) {
+        Map<String, Object> properties = new HashMap<>();
+
+        stubs.forEach((service, stub) -> {
+            properties.put("app.service.%s.host".formatted(service), "localhost");
+            properties.put("app.service.%s.port".formatted(service), stub.getPort());
+            properties.put("app.service.%s.h2c".formatted(service), Boolean.getBoolean("loadtest.h2c"));
+            properties.put("spring.cloud.discovery.client.simple.instances.%s-service[0].uri".formatted(service), "http://localhost:" + stub.getPort());
+        });
+
+        return properties;
+    }
+
+    private static void writeHistogram(OpenLoopLoadGenerator.Result result) throws IOException {
+        String histogramFile = System.getProperty("loadtest.histogramFile");
+
+        if(histogramFile == null) {
+            return;
+        }
+
+        Path path = Path.of(histogramFile);
+        if(path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        try(PrintStream out = new PrintStream(new FileOutputStream(path.toFile()))) {
+            result.histogram().outputPercentileDistribution(out, 1000.0);
+        }
+        log.info("Latency distribution written to {}", path.toAbsolutePath());
+    }
+}
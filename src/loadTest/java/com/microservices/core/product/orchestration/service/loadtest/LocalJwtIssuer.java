@@ -0,0 +1,68 @@
+package com.microservices.core.product.orchestration.service.loadtest;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Signs tokens with an in-memory RSA key, so the service can be run without the authorization server.
+public class LocalJwtIssuer {
+
+    public static final String ISSUER = "http://localhost/loadtest";
+
+    private final RSAPublicKey publicKey;
+
+    private final NimbusJwtEncoder jwtEncoder;
+
+    public LocalJwtIssuer() {
+        try {
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+            keyPairGenerator.initialize(2048);
+            KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+            publicKey = (RSAPublicKey) keyPair.getPublic();
+            RSAKey rsaKey = new RSAKey.Builder(publicKey)
+                    .privateKey((RSAPrivateKey) keyPair.getPrivate())
+                    .keyID("loadtest")
+                    .build();
+
+            jwtEncoder = new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("RSA is not available", ex);
+        }
+    }
+
+    public String issueToken(String scope, Duration validity) {
+        Instant now = Instant.now();
+
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(ISSUER)
+                .subject("loadtest")
+                .audience(List.of("product-orchestration-service"))
+                .issuedAt(now)
+                .expiresAt(now.plus(validity))
+                .claim("scope", scope)
+                .build();
+
+        return jwtEncoder.encode(JwtEncoderParameters.from(JwsHeader.with(SignatureAlgorithm.RS256).keyId("loadtest").build(), claims)).getTokenValue();
+    }
+
+    public ReactiveJwtDecoder jwtDecoder() {
+        return NimbusReactiveJwtDecoder.withPublicKey(publicKey).build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.microservices.core.product.orchestration.service.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Sends requests at a fixed arrival rate whatever the response times are, and measures latency from the intended send time
+// so that a stalled service is not hidden by the generator slowing down (coordinated omission).
+@Slf4j
+public class OpenLoopLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient httpClient;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final String bearerToken;
+
+    private final List<String> paths;
+
+    private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY, 3);
+
+    private final AtomicLong successes = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    public OpenLoopLoadGenerator(String baseUrl, String bearerToken, List<String> paths, int maxConnections) {
+        this.connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.httpClient = HttpClient.create(connectionProvider).baseUrl(baseUrl);
+        this.bearerToken = bearerToken;
+        this.paths = paths;
+    }
+
+    public Result run(int requestsPerSecond, Duration warmup, Duration duration) throws InterruptedException {
+        if(!warmup.isZero()) {
+            log.info("Warming up for {} at {} requests/s", warmup, requestsPerSecond);
+            send(requestsPerSecond, warmup);
+            histogram.reset();
+            successes.set(0);
+            failures.set(0);
+        }
+
+        log.info("Measuring for {} at {} requests/s", duration, requestsPerSecond);
+        long started = System.nanoTime();
+        send(requestsPerSecond, duration);
+        long elapsed = System.nanoTime() - started;
+
+        return new Result(histogram.copy(), successes.get(), failures.get(), Duration.ofNanos(elapsed));
+    }
+
+    public void close() {
+        connectionProvider.disposeLater().block();
+    }
+
+    private void send(int requestsPerSecond, Duration duration) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long total = duration.toNanos() / intervalNanos;
+        CountDownLatch completed = new CountDownLatch((int) total);
+        long start = System.nanoTime();
+
+        for(long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long waitNanos = intendedStart - System.nanoTime();
+
+            if(waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            String path = paths.get((int) (i % paths.size()));
+
+            httpClient.headers(headers -> headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + bearerToken))
+                    .get()
+                    .uri(path)
+                    .responseSingle((response, body) -> body.asByteArray().defaultIfEmpty(new byte[0]).map(bytes -> response.status().code()))
+                    .onErrorResume(ex -> Mono.just(-1))
+                    .subscribe(status -> {
+                        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart), HIGHEST_TRACKABLE_LATENCY));
+
+                        if(status >= 200 && status < 300) {
+                            successes.incrementAndGet();
+                        } else {
+                            failures.incrementAndGet();
+                        }
+                        completed.countDown();
+                    });
+        }
+
+        if(!completed.await(duration.toSeconds() + 60, TimeUnit.SECONDS)) {
+            log.warn("Not all requests completed, {} still outstanding", completed.getCount());
+        }
+    }
+
+    public record Result(Histogram histogram, long successes, long failures, Duration elapsed) {
+
+        public double throughput() {
+            return (successes + failures) / (elapsed.toNanos() / 1_000_000_000.0);
+        }
+
+        public void print(PrintStream out, String title) {
+            out.printf("%n=== %s ===%n", title);
+            out.printf("Requests: %d ok, %d failed, %.1f requests/s%n", successes, failures, throughput());
+            out.printf("Latency (ms): p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
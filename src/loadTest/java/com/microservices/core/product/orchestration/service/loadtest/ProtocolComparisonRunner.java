@@ -0,0 +1,114 @@
+package com.microservices.core.product.orchestration.service.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.ProductOrchestrationServiceApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Hooks;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Runs the same load twice against the same stubs, once over HTTP/1.1 and once over h2c to the downstream services,
+// and reports the latency, the connections the stubs accepted and the CPU time used. The stubs and the load generator
+// run in the same process, so the CPU figures are only meaningful relative to each other.
+// Accepts the LoadTestRunner options, except for loadtest.histogramFile.
+@Slf4j
+public class ProtocolComparisonRunner {
+
+    private static final List<String> SERVICES = List.of("product", "review", "recommendation");
+
+    public static void main(String[] args) throws Exception {
+        Hooks.enableAutomaticContextPropagation();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, StubDownstreamServer> stubs = new HashMap<>();
+
+        for(String service : SERVICES) {
+            stubs.put(service, new StubDownstreamServer(service + "-service", StubDownstreamServer.StubProfile.fromSystemProperties(service), objectMapper).start());
+        }
+
+        Map<String, Run> runs = new LinkedHashMap<>();
+
+        try {
+            runs.put("HTTP/1.1", run(stubs, false, args));
+            runs.put("h2c", run(stubs, true, args));
+        } finally {
+            stubs.values().forEach(StubDownstreamServer::stop);
+        }
+
+        System.out.printf("%n%-10s %12s %10s %10s %10s %14s %12s%n", "protocol", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "connections", "cpu s");
+        runs.forEach((protocol, run) -> System.out.printf("%-10s %12.1f %10.2f %10.2f %10.2f %14d %12.2f%n",
+                protocol,
+                run.result().throughput(),
+                run.result().histogram().getValueAtPercentile(50) / 1000.0,
+                run.result().histogram().getValueAtPercentile(99) / 1000.0,
+                run.result().histogram().getValueAtPercentile(99.9) / 1000.0,
+                run.connections(),
+                run.cpuNanos() / 1_000_000_000.0));
+    }
+
+    private static Run run(Map<String, StubDownstreamServer> stubs, boolean h2c, String[] args) throws InterruptedException {
+        LocalJwtIssuer localJwtIssuer = new LocalJwtIssuer();
+
+        Map<String, Object> properties = LoadTestRunner.buildProperties(stubs);
+        SERVICES.forEach(service -> properties.put("app.service.%s.h2c".formatted(service), h2c));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ProductOrchestrationServiceApplication.class, LoadTestConfiguration.class)
+                .profiles("loadtest")
+                .initializers(applicationContext -> applicationContext.getBeanFactory().registerSingleton("localJwtIssuer", localJwtIssuer))
+                .properties(properties)
+                .run(args);
+
+        OpenLoopLoadGenerator loadGenerator = null;
+
+        try {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            int products = Integer.getInteger("loadtest.products", 100);
+            String pathTemplate = System.getProperty("loadtest.path", "/product-orchestration/%d");
+
+            List<String> paths = IntStream.rangeClosed(1, products).mapToObj(pathTemplate::formatted).toList();
+            String token = localJwtIssuer.issueToken("product:read product:write", Duration.ofHours(1));
+
+            loadGenerator = new OpenLoopLoadGenerator("http://localhost:" + port, token, paths, Integer.getInteger("loadtest.maxConnections", 512));
+
+            long connectionsBefore = countConnections(stubs);
+            long cpuBefore = getProcessCpuNanos();
+
+            OpenLoopLoadGenerator.Result result = loadGenerator.run(
+                    Integer.getInteger("loadtest.rate", 200),
+                    Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                    Duration.parse(System.getProperty("loadtest.duration", "PT30S")));
+
+            Run run = new Run(result, countConnections(stubs) - connectionsBefore, getProcessCpuNanos() - cpuBefore);
+            result.print(System.out, "GET %s over %s".formatted(pathTemplate, h2c ? "h2c" : "HTTP/1.1"));
+            System.out.printf("Downstream connections: %d, CPU time: %.2fs%n", run.connections(), run.cpuNanos() / 1_000_000_000.0);
+            return run;
+        } finally {
+            if(loadGenerator != null) {
+                loadGenerator.close();
+            }
+            context.close();
+        }
+    }
+
+    private static long countConnections(Map<String, StubDownstreamServer> stubs) {
+        return stubs.values().stream().mapToLong(StubDownstreamServer::getConnections).sum();
+    }
+
+    private static long getProcessCpuNanos() {
+        if(ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean operatingSystem) {
+            return operatingSystem.getProcessCpuTime();
+        }
+        return 0L;
+    }
+
+    private record Run(OpenLoopLoadGenerator.Result result, long connections, long cpuNanos) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.microservices.core.product.orchestration.service.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.RecommendationDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+// Stands in for product-service, review-service and recommendation-service with a configurable latency and error distribution.
+@Slf4j
+public class StubDownstreamServer {
+
+    private static final String CONTENT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.";
+
+    private final String name;
+
+    private final StubProfile profile;
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong connections = new AtomicLong();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private DisposableServer server;
+
+    public StubDownstreamServer(String name, StubProfile profile, ObjectMapper objectMapper) {
+        this.name = name;
+        this.profile = profile;
+        this.objectMapper = objectMapper;
+    }
+
+    public StubDownstreamServer start() {
+        server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                // Accepts HTTP/2 cleartext upgrades as well, connections are counted per socket and not per stream.
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observer, channel, remoteAddress) -> connections.incrementAndGet())
+                .route(routes -> routes
+                        .get("/product/{productId}", (request, response) -> respond(response, () -> buildProduct(Long.parseLong(request.param("productId")))))
+                        .get("/review", (request, response) -> respond(response, () -> buildReviews(getProductId(request))))
+                        .get("/recommendation", (request, response) -> respond(response, () -> buildRecommendations(getProductId(request)))))
+                .bindNow();
+
+        log.info("Started {} stub on port {} with {}", name, server.port(), profile);
+        return this;
+    }
+
+    public void stop() {
+        if(server != null) {
+            server.disposeNow();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+
+    public long getConnections() {
+        return connections.get();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    private Mono<Void> respond(HttpServerResponse response, JsonSupplier body) {
+        requests.incrementAndGet();
+
+        return Mono.delay(profile.nextLatency())
+                .then(Mono.defer(() -> {
+                    if(profile.nextIsError()) {
+                        return response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send();
+                    }
+
+                    try {
+                        byte[] json = body.get();
+                        return response.status(HttpResponseStatus.OK)
+                                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .sendByteArray(Mono.just(json))
+                                .then();
+                    } catch (JsonProcessingException ex) {
+                        return Mono.error(ex);
+                    }
+                }));
+    }
+
+    private Long getProductId(HttpServerRequest request) {
+        List<String> productIds = new QueryStringDecoder(request.uri(), StandardCharsets.UTF_8).parameters().get("productId");
+        return productIds == null || productIds.isEmpty() ? 0L : Long.parseLong(productIds.get(0));
+    }
+
+    private byte[] buildProduct(Long productId) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new ProductDTO(productId, "Product " + productId, 100, name + "/" + getPort()));
+    }
+
+    private byte[] buildReviews(Long productId) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(LongStream.rangeClosed(1, profile.items())
+                .mapToObj(reviewId -> new ReviewDTO(reviewId, productId, "Author " + reviewId, "Subject " + reviewId, CONTENT, name + "/" + getPort()))
+                .toList());
+    }
+
+    private byte[] buildRecommendations(Long productId) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(LongStream.rangeClosed(1, profile.items())
+                .mapToObj(recommendationId -> new RecommendationDTO(recommendationId, productId, "Author " + recommendationId, (int) (recommendationId % 5), CONTENT, name + "/" + getPort()))
+                .toList());
+    }
+
+    @FunctionalInterface
+    private interface JsonSupplier {
+        byte[] get() throws JsonProcessingException;
+    }
+
+    // Latency is a fixed part plus an exponentially distributed part, which gives the long tail seen on real services.
+    public record StubProfile(Duration baseLatency, Duration meanJitter, double errorRate, int items) {
+
+        public static StubProfile fromSystemProperties(String name) {
+            return new StubProfile(
+                    Duration.parse(System.getProperty("loadtest.stub.%s.baseLatency".formatted(name), "PT0.005S")),
+                    Duration.parse(System.getProperty("loadtest.stub.%s.meanJitter".formatted(name), "PT0.005S")),
+                    Double.parseDouble(System.getProperty("loadtest.stub.%s.errorRate".formatted(name), "0")),
+                    Integer.parseInt(System.getProperty("loadtest.stub.%s.items".formatted(name), "10")));
+        }
+
+        Duration nextLatency() {
+            long jitterNanos = (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanJitter.toNanos());
+            return baseLatency.plusNanos(jitterNanos);
+        }
+
+        boolean nextIsError() {
+            return errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.microservices.core.product.orchestration.service;
 
+import com.microservices.core.product.orchestration.service.config.CappedVirtualThreadExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Hooks;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
@@ -19,21 +21,33 @@ public class ProductOrchestrationServiceApplication {
 	Integer threadPoolSize;
 	@Value("${app.taskQueueSize:100}")
 	Integer taskQueueSize;
+	@Value("${app.virtualThreads.enabled:false}")
+	boolean virtualThreadsEnabled;
+	@Value("${app.virtualThreads.maxConcurrency:256}")
+	Integer virtualThreadsMaxConcurrency;
+	@Value("${app.virtualThreads.maxWaiting:10000}")
+	Integer virtualThreadsMaxWaiting;
 
 	@Bean
 	RestTemplate restTemplate() {
 		return new RestTemplate();
 	}
 
+	// With virtual threads the blocking sends over the cap wait on their own thread, up to app.virtualThreads.maxWaiting of them,
+	// instead of in a task queue of app.taskQueueSize.
 	@Bean
-	public Scheduler publishEventScheduler() {
-		return Schedulers.newBoundedElastic(threadPoolSize, taskQueueSize, "publish-pool");
-	}
+	public Scheduler publishEventScheduler(MeterRegistry meterRegistry) {
+		if(virtualThreadsEnabled) {
+			CappedVirtualThreadExecutor executor = new CappedVirtualThreadExecutor("publish-pool", virtualThreadsMaxConcurrency, virtualThreadsMaxWaiting);
 
+			Gauge.builder("orchestration.scheduler.waiting", executor, CappedVirtualThreadExecutor::getWaiting)
+					.description("Tasks waiting for a free slot on the virtual thread scheduler")
+					.tag("scheduler", "publish-pool")
+					.register(meterRegistry);
 
-	@Bean
-	public WebClient loadBalancedWebClientBuilder(WebClient.Builder builder) {
-		return builder.build();
+			return Schedulers.fromExecutorService(executor, "publish-pool");
+		}
+		return Schedulers.newBoundedElastic(threadPoolSize, taskQueueSize, "publish-pool");
 	}
 
 	public static void main(String[] args) {
@@ -0,0 +1,22 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Exposed as /actuator/aggregatecache once included in management.endpoints.web.exposure.include.
+@Component
+@Endpoint(id = "aggregatecache")
+public class AggregateCacheEndpoint {
+
+    @Autowired
+    private ProductAggregateCache productAggregateCache;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return productAggregateCache.getStats();
+    }
+}
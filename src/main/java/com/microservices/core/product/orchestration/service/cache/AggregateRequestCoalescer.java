@@ -0,0 +1,84 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class AggregateRequestCoalescer {
+
+    @Value("${app.coalescing.aggregate.enabled:true}")
+    private boolean enabled;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Object, Mono<?>> inFlightRequests = new ConcurrentHashMap<>();
+
+    private Counter coalescedCounter;
+
+    @PostConstruct
+    void init() {
+        coalescedCounter = Counter.builder("orchestration.aggregate.coalesced")
+                .description("Aggregate reads that joined an already running downstream fan-out")
+                .register(meterRegistry);
+
+        Gauge.builder("orchestration.aggregate.in.flight", inFlightRequests, Map::size)
+                .description("Distinct aggregate reads currently running against the downstream services")
+                .register(meterRegistry);
+    }
+
+    // Concurrent subscribers for the same key share a single subscription to the source.
+    // A cancelling subscriber only detaches itself, the source is cancelled once every subscriber is gone.
+    // Errors are delivered to all the current subscribers and the next call starts a new execution.
+    // Callers using the same key are expected to ask for the same type of value.
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> coalesce(Object key, Supplier<Mono<T>> supplier) {
+        if(!enabled) {
+            return Mono.defer(supplier);
+        }
+
+        return Mono.defer(() -> {
+            AtomicBoolean created = new AtomicBoolean(false);
+
+            Mono<T> shared = (Mono<T>) inFlightRequests.computeIfAbsent(key, k -> {
+                created.set(true);
+                return share(k, Mono.defer(supplier));
+            });
+
+            if(!created.get()) {
+                log.debug("Joining in-flight aggregate request for key: {}", key);
+                coalescedCounter.increment();
+            }
+
+            return shared;
+        });
+    }
+
+    private <T> Mono<T> share(Object key, Mono<T> source) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+
+        Mono<T> shared = source
+                .doFinally(signal -> inFlightRequests.remove(key, self.get()))
+                .flux()
+                .publish()
+                .refCount()
+                .singleOrEmpty();
+
+        self.set(shared);
+        return shared;
+    }
+}
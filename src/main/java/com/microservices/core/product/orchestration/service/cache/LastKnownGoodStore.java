@@ -0,0 +1,139 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Keeps the last successful response of each downstream service, to be served when a later call fails.
+@Slf4j
+@Component
+public class LastKnownGoodStore {
+
+    public static final String CACHE_NAME = "last-known-good";
+
+    public static final String SERVED_COUNTER = "orchestration.lastknowngood.served";
+
+    @Value("${app.cache.lastKnownGood.enabled:true}")
+    private boolean enabled;
+
+    // Entries older than the soft TTL are still served, but refreshed in the background.
+    @Value("${app.cache.lastKnownGood.softTtl:PT30S}")
+    private Duration softTtl;
+
+    // Entries older than the max age are not served.
+    @Value("${app.cache.lastKnownGood.maxAge:PT1H}")
+    private Duration maxAge;
+
+    @Value("${app.cache.lastKnownGood.maxEntries:10000}")
+    private Long maxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // The entries of a product are kept together, so that invalidating a product does not scan the whole store. The maps are
+    // updated in place and weighed again by their number of entries when one is added.
+    private Cache<Long, Map<Key, Entry<?>>> store;
+
+    private final Set<Key> refreshing = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        store = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .weigher((Long productId, Map<Key, Entry<?>> entries) -> entries.size())
+                .expireAfterAccess(maxAge)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, store, CACHE_NAME);
+
+        log.debug("Last known good store enabled: {}, soft ttl: {}, max age: {}", enabled, softTtl, maxAge);
+    }
+
+    // The variant tells apart responses of the same service for the same product, such as different pages.
+    public <T> void put(String service, Long productId, Object variant, T value) {
+        if(!enabled || Objects.isNull(productId) || Objects.isNull(value)) {
+            return;
+        }
+        Key storeKey = new Key(service, productId, variant);
+        Map<Key, Entry<?>> entries = store.asMap().computeIfAbsent(productId, id -> new ConcurrentHashMap<>());
+        Entry<?> current = entries.get(storeKey);
+
+        // Every successful call ends up here, while the store is only read when a call fails. An unchanged value within the
+        // soft TTL is left as is.
+        if(Objects.nonNull(current) && current.age().compareTo(softTtl) <= 0 && Objects.equals(current.value(), value)) {
+            return;
+        }
+
+        if(Objects.isNull(entries.put(storeKey, new Entry<>(value, System.nanoTime())))) {
+            store.asMap().replace(productId, entries, entries);
+        }
+    }
+
+    // The refresh runs at most once at a time per entry, its value replaces the stored one. An empty or failed refresh leaves the entry as is.
+    @SuppressWarnings("unchecked")
+    public <T> Optional<Entry<T>> get(String service, Long productId, Object variant, Supplier<Mono<T>> refresh) {
+        if(!enabled || Objects.isNull(productId)) {
+            return Optional.empty();
+        }
+
+        Key storeKey = new Key(service, productId, variant);
+        Map<Key, Entry<?>> entries = store.getIfPresent(productId);
+        Entry<T> entry = Objects.isNull(entries) ? null : (Entry<T>) entries.get(storeKey);
+
+        // The product expires once it has been neither written nor read for the max age, older entries of it are left out here.
+        if(Objects.isNull(entry) || entry.age().compareTo(maxAge) > 0) {
+            return Optional.empty();
+        }
+
+        Counter.builder(SERVED_COUNTER)
+                .description("Failed downstream calls answered with the last known good response")
+                .tag("service", service)
+                .register(meterRegistry)
+                .increment();
+
+        if(entry.age().compareTo(softTtl) > 0 && refreshing.add(storeKey)) {
+            log.debug("Refreshing last known good {} response for product ID: {}", service, productId);
+
+            Mono.defer(refresh)
+                    .doFinally(signal -> refreshing.remove(storeKey))
+                    .subscribe(value -> put(service, productId, variant, value),
+                            ex -> log.debug("Refresh of last known good {} response for product ID: {} failed: {}", service, productId, ex.getMessage()));
+        }
+
+        return Optional.of(entry);
+    }
+
+    public void invalidate(Long productId) {
+        if(Objects.isNull(productId)) {
+            return;
+        }
+        store.invalidate(productId);
+    }
+
+    public record Entry<T>(T value, long storedAtNanos) {
+
+        public Duration age() {
+            return Duration.ofNanos(System.nanoTime() - storedAtNanos);
+        }
+    }
+
+    private record Key(String service, Long productId, Object variant) {
+    }
+}
@@ -0,0 +1,287 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Keeps serialized aggregates in direct memory, only the index lives on the heap. The memory is allocated in slabs, each
+// slab is split into equal chunks of one size class and an entry takes the smallest chunk it fits in. Size classes grow
+// by a factor of 1.25, which bounds the space wasted inside a chunk. When a size class has no free chunk and no slab is
+// left, its oldest entries are evicted. Slabs stay assigned to their size class once carved. The content hash of an entry
+// is kept in the index next to its location.
+class OffHeapAggregateStore {
+
+    private static final double GROWTH_FACTOR = 1.25;
+
+    private static final int ALIGNMENT = 8;
+
+    private final int slabSize;
+
+    private final long ttlNanos;
+
+    private final ByteBuffer[] slabs;
+
+    private final SizeClass[] sizeClasses;
+
+    private final Map<Long, Location> index = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder expirations = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    private int allocatedSlabs;
+
+    private long usedBytes;
+
+    private long chunkBytes;
+
+    OffHeapAggregateStore(long capacityBytes, int slabSize, int minChunkSize, long ttlNanos) {
+        this.slabSize = slabSize;
+        this.ttlNanos = ttlNanos;
+        this.slabs = new ByteBuffer[(int) Math.max(1, capacityBytes / slabSize)];
+
+        List<SizeClass> classes = new ArrayList<>();
+        int chunkSize = align(minChunkSize);
+        while(chunkSize < slabSize) {
+            classes.add(new SizeClass(chunkSize));
+            chunkSize = align((int) Math.ceil(chunkSize * GROWTH_FACTOR));
+        }
+        classes.add(new SizeClass(slabSize));
+        this.sizeClasses = classes.toArray(new SizeClass[0]);
+    }
+
+    SerializedAggregate get(Long key) {
+        Location location;
+        SerializedAggregate value = null;
+
+        lock.readLock().lock();
+        try {
+            location = index.get(key);
+
+            if(Objects.nonNull(location) && !location.isExpired(System.nanoTime())) {
+                byte[] json = new byte[location.length()];
+                // Absolute bulk reads leave the buffer position alone, so concurrent readers do not interfere.
+                slabs[location.slab()].get(location.offset(), json);
+                value = new SerializedAggregate(json, location.contentHash());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if(Objects.nonNull(value)) {
+            hits.increment();
+            return value;
+        }
+
+        misses.increment();
+
+        if(Objects.nonNull(location)) {
+            lock.writeLock().lock();
+            try {
+                if(index.get(key) == location) {
+                    expirations.increment();
+                    remove(key, location);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        return null;
+    }
+
+    boolean put(Long key, byte[] value, String contentHash) {
+        if(value.length > slabSize) {
+            rejections.increment();
+            return false;
+        }
+
+        SizeClass sizeClass = getSizeClass(value.length);
+
+        lock.writeLock().lock();
+        try {
+            Location previous = index.get(key);
+            if(Objects.nonNull(previous)) {
+                remove(key, previous);
+            }
+
+            long address = allocate(sizeClass);
+            if(address < 0) {
+                rejections.increment();
+                return false;
+            }
+
+            Location location = new Location(slab(address), offset(address), value.length, sizeClass, contentHash, System.nanoTime() + ttlNanos);
+            slabs[location.slab()].put(location.offset(), value);
+
+            index.put(key, location);
+            sizeClass.entries.addLast(new Slot(key, location));
+            sizeClass.liveEntries++;
+            usedBytes += value.length;
+            chunkBytes += sizeClass.chunkSize;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void invalidate(Long key) {
+        lock.writeLock().lock();
+        try {
+            Location location = index.get(key);
+            if(Objects.nonNull(location)) {
+                remove(key, location);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Stats getStats() {
+        lock.readLock().lock();
+        try {
+            List<SizeClassStats> sizeClassStats = new ArrayList<>();
+            for(SizeClass sizeClass : sizeClasses) {
+                if(sizeClass.slabs > 0) {
+                    sizeClassStats.add(new SizeClassStats(sizeClass.chunkSize, sizeClass.slabs, sizeClass.liveEntries, sizeClass.freeChunks.size()));
+                }
+            }
+
+            return new Stats((long) slabs.length * slabSize, (long) allocatedSlabs * slabSize, chunkBytes, usedBytes, index.size(),
+                    hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), rejections.sum(), sizeClassStats);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Called with the write lock held.
+    private long allocate(SizeClass sizeClass) {
+        if(!sizeClass.freeChunks.isEmpty()) {
+            return sizeClass.freeChunks.pollFirst();
+        }
+
+        if(allocatedSlabs < slabs.length) {
+            int slab = allocatedSlabs++;
+            slabs[slab] = ByteBuffer.allocateDirect(slabSize);
+            sizeClass.slabs++;
+
+            for(int offset = 0; offset + sizeClass.chunkSize <= slabSize; offset += sizeClass.chunkSize) {
+                sizeClass.freeChunks.addLast(address(slab, offset));
+            }
+            return sizeClass.freeChunks.pollFirst();
+        }
+
+        while(!sizeClass.entries.isEmpty()) {
+            Slot oldest = sizeClass.entries.pollFirst();
+
+            // Slots of entries removed or replaced in the meantime are skipped.
+            if(index.get(oldest.key()) == oldest.location()) {
+                evictions.increment();
+                remove(oldest.key(), oldest.location());
+                return sizeClass.freeChunks.pollFirst();
+            }
+        }
+
+        return -1;
+    }
+
+    // Called with the write lock held.
+    private void remove(Long key, Location location) {
+        SizeClass sizeClass = location.sizeClass();
+
+        index.remove(key);
+        sizeClass.freeChunks.addLast(address(location.slab(), location.offset()));
+        sizeClass.liveEntries--;
+        usedBytes -= location.length();
+        chunkBytes -= sizeClass.chunkSize;
+
+        // Drops the slots left behind by removed entries once they outnumber the live ones.
+        if(sizeClass.entries.size() > 2 * sizeClass.liveEntries + 16) {
+            sizeClass.entries.removeIf(slot -> index.get(slot.key()) != slot.location());
+        }
+    }
+
+    private SizeClass getSizeClass(int length) {
+        for(SizeClass sizeClass : sizeClasses) {
+            if(length <= sizeClass.chunkSize) {
+                return sizeClass;
+            }
+        }
+        return sizeClasses[sizeClasses.length - 1];
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static long address(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+
+    private static int slab(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static final class SizeClass {
+
+        private final int chunkSize;
+
+        private final ArrayDeque<Long> freeChunks = new ArrayDeque<>();
+
+        // Insertion order, used to evict the oldest entries of the size class.
+        private final ArrayDeque<Slot> entries = new ArrayDeque<>();
+
+        private int slabs;
+
+        private int liveEntries;
+
+        private SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    private record Location(int slab, int offset, int length, SizeClass sizeClass, String contentHash, long expiresAtNanos) {
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+
+    private record Slot(Long key, Location location) {
+    }
+
+    record SizeClassStats(int chunkSize, int slabs, int entries, int freeChunks) {
+    }
+
+    // Fragmentation is the share of the chunk memory in use that is not covered by the entries stored in the chunks.
+    record Stats(long capacityBytes, long allocatedBytes, long chunkBytes, long usedBytes, int entries,
+                 long hits, long misses, long evictions, long expirations, long rejections, List<SizeClassStats> sizeClasses) {
+
+        double fragmentation() {
+            return chunkBytes == 0 ? 0.0 : 1.0 - (double) usedBytes / chunkBytes;
+        }
+
+        double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.TaggedProductAggregate;
+import com.microservices.core.product.orchestration.service.util.SizeEstimator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+@Slf4j
+@Component
+public class ProductAggregateCache {
+
+    public static final String CACHE_NAME = "product-aggregate";
+
+    private static final String OFF_HEAP_STORAGE = "offheap";
+
+    @Value("${app.cache.aggregate.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.aggregate.maxWeightBytes:67108864}")
+    private long maxWeightBytes;
+
+    @Value("${app.cache.aggregate.ttl:PT30S}")
+    private Duration ttl;
+
+    // heap keeps the aggregates as objects, offheap keeps them as JSON in direct memory.
+    @Value("${app.cache.aggregate.storage:heap}")
+    private String storage;
+
+    @Value("${app.cache.aggregate.offheap.slabSize:1048576}")
+    private Integer slabSize;
+
+    @Value("${app.cache.aggregate.offheap.minChunkSize:512}")
+    private Integer minChunkSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cache<Long, TaggedProductAggregate> cache;
+
+    private OffHeapAggregateStore offHeapStore;
+
+    @PostConstruct
+    void init() {
+        if(OFF_HEAP_STORAGE.equals(storage)) {
+            initOffHeapStore();
+            return;
+        }
+
+        // Caffeine uses W-TinyLFU, so entries are admitted and evicted based on access frequency and not only recency.
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long productId, TaggedProductAggregate productAggregate) -> SizeEstimator.estimate(productAggregate.aggregate()))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        log.debug("Product aggregate cache enabled: {}, max weight: {} bytes, ttl: {}", enabled, maxWeightBytes, ttl);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ProductAggregateDTO get(Long productId) {
+        TaggedProductAggregate productAggregate = getTagged(productId);
+        return Objects.isNull(productAggregate) ? null : productAggregate.aggregate();
+    }
+
+    // Returns the cached aggregate with the content hash stored next to it.
+    public TaggedProductAggregate getTagged(Long productId) {
+        if(!enabled || Objects.isNull(productId)) {
+            return null;
+        }
+
+        if(Objects.isNull(offHeapStore)) {
+            return cache.getIfPresent(productId);
+        }
+
+        SerializedAggregate serializedAggregate = offHeapStore.get(productId);
+        if(Objects.isNull(serializedAggregate)) {
+            return null;
+        }
+
+        try {
+            return new TaggedProductAggregate(objectMapper.readValue(serializedAggregate.json(), ProductAggregateDTO.class), serializedAggregate.contentHash());
+        } catch (IOException ex) {
+            log.warn("Unable to read the cached product aggregate for ID: {}: {}", productId, ex.getMessage());
+            offHeapStore.invalidate(productId);
+            return null;
+        }
+    }
+
+    // Returns the cached aggregate as JSON, ready to be written to the response, with its content hash. Only available with the off-heap storage.
+    public SerializedAggregate getJson(Long productId) {
+        if(!enabled || Objects.isNull(productId) || Objects.isNull(offHeapStore)) {
+            return null;
+        }
+        return offHeapStore.get(productId);
+    }
+
+    public void put(Long productId, TaggedProductAggregate productAggregate) {
+        if(!enabled || Objects.isNull(productId) || Objects.isNull(productAggregate)) {
+            return;
+        }
+
+        // Fallback responses (e.g. circuit breaker open) are not cached, only the real product.
+        if(!Objects.equals(productId, productAggregate.aggregate().productId())) {
+            log.debug("Skipping caching of product aggregate for ID: {}, returned ID: {}", productId, productAggregate.aggregate().productId());
+            return;
+        }
+
+        if(Objects.isNull(offHeapStore)) {
+            cache.put(productId, productAggregate);
+            return;
+        }
+
+        try {
+            offHeapStore.put(productId, objectMapper.writeValueAsBytes(productAggregate.aggregate()), productAggregate.contentHash());
+        } catch (JsonProcessingException ex) {
+            log.warn("Unable to cache the product aggregate for ID: {}: {}", productId, ex.getMessage());
+        }
+    }
+
+    public void invalidate(Long productId) {
+        if(Objects.isNull(productId)) {
+            return;
+        }
+        log.debug("Invalidating product aggregate cache for ID: {}", productId);
+        if(Objects.isNull(offHeapStore)) {
+            cache.invalidate(productId);
+        } else {
+            offHeapStore.invalidate(productId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("storage", Objects.isNull(offHeapStore) ? "heap" : OFF_HEAP_STORAGE);
+
+        if(Objects.isNull(offHeapStore)) {
+            stats.put("entries", cache.estimatedSize());
+            stats.put("hitRate", cache.stats().hitRate());
+            stats.put("evictions", cache.stats().evictionCount());
+            cache.policy().eviction().ifPresent(eviction -> stats.put("weightBytes", eviction.weightedSize().orElse(0L)));
+            return stats;
+        }
+
+        OffHeapAggregateStore.Stats offHeapStats = offHeapStore.getStats();
+        stats.put("entries", offHeapStats.entries());
+        stats.put("hitRate", offHeapStats.hitRate());
+        stats.put("hits", offHeapStats.hits());
+        stats.put("misses", offHeapStats.misses());
+        stats.put("evictions", offHeapStats.evictions());
+        stats.put("expirations", offHeapStats.expirations());
+        stats.put("rejections", offHeapStats.rejections());
+        stats.put("capacityBytes", offHeapStats.capacityBytes());
+        stats.put("allocatedBytes", offHeapStats.allocatedBytes());
+        stats.put("chunkBytes", offHeapStats.chunkBytes());
+        stats.put("usedBytes", offHeapStats.usedBytes());
+        stats.put("fragmentation", offHeapStats.fragmentation());
+        stats.put("sizeClasses", offHeapStats.sizeClasses());
+        return stats;
+    }
+
+    private void initOffHeapStore() {
+        offHeapStore = new OffHeapAggregateStore(maxWeightBytes, slabSize, minChunkSize, ttl.toNanos());
+
+        Gauge.builder("orchestration.cache.offheap.allocated", offHeapStore, store -> store.getStats().allocatedBytes())
+                .description("Direct memory allocated to the aggregate cache slabs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        Gauge.builder("orchestration.cache.offheap.used", offHeapStore, store -> store.getStats().usedBytes())
+                .description("Bytes of the cached aggregates")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        Gauge.builder("orchestration.cache.offheap.fragmentation", offHeapStore, store -> store.getStats().fragmentation())
+                .description("Share of the chunk memory in use not covered by cached aggregates")
+                .register(meterRegistry);
+
+        Gauge.builder("orchestration.cache.offheap.entries", offHeapStore, store -> store.getStats().entries())
+                .description("Cached aggregates")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("orchestration.cache.offheap.requests", offHeapStore, store -> store.getStats().hits())
+                .description("Aggregate cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("orchestration.cache.offheap.requests", offHeapStore, store -> store.getStats().misses())
+                .description("Aggregate cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+
+        FunctionCounter.builder("orchestration.cache.offheap.evictions", offHeapStore, store -> store.getStats().evictions())
+                .description("Aggregates evicted to make room for new ones")
+                .register(meterRegistry);
+
+        log.debug("Product aggregate cache enabled: {}, off-heap capacity: {} bytes, slab size: {} bytes, ttl: {}", enabled, maxWeightBytes, slabSize, ttl);
+    }
+}
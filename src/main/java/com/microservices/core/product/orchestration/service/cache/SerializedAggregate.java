@@ -0,0 +1,5 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+// A cached aggregate as JSON with the hash of its content, stored next to each other so that neither is derived on a read.
+public record SerializedAggregate(byte[] json, String contentHash) {
+}
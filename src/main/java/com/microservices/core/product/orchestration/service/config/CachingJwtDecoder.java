@@ -0,0 +1,98 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.microservices.core.product.orchestration.service.util.ProductOrchestrationUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+// Keeps the tokens that passed the verification, keyed by the SHA-256 of the token, until they expire or at most for
+// the max TTL. Tokens that fail the verification are not kept, so they are verified again on every request.
+public class CachingJwtDecoder implements ReactiveJwtDecoder {
+
+    public static final String CACHE_NAME = "verified-jwt";
+
+    public static final String VERIFICATION_TIMER = "orchestration.jwt.verification";
+
+    private final ReactiveJwtDecoder delegate;
+
+    private final Cache<String, Jwt> verifiedTokens;
+
+    private final MeterRegistry meterRegistry;
+
+    public CachingJwtDecoder(ReactiveJwtDecoder delegate, long maxEntries, Duration maxTtl, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+                        return getTtlNanos(jwt, maxTtl);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return getTtlNanos(jwt, maxTtl);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, CACHE_NAME);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        return Mono.defer(() -> {
+            String key = ProductOrchestrationUtil.hash(token.getBytes(StandardCharsets.UTF_8));
+            Jwt jwt = verifiedTokens.getIfPresent(key);
+
+            if(Objects.nonNull(jwt)) {
+                return Mono.just(jwt);
+            }
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+
+            return delegate.decode(token)
+                    .doOnNext(verifiedJwt -> verifiedTokens.put(key, verifiedJwt))
+                    .doOnSuccess(verifiedJwt -> stopVerification(sample, "success"))
+                    .doOnError(ex -> stopVerification(sample, "error"));
+        });
+    }
+
+    private void stopVerification(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder(VERIFICATION_TIMER)
+                .description("Time spent on decoding and verifying a token not found in the cache")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static long getTtlNanos(Jwt jwt, Duration maxTtl) {
+        Instant expiresAt = jwt.getExpiresAt();
+
+        if(Objects.isNull(expiresAt)) {
+            return maxTtl.toNanos();
+        }
+
+        Duration ttl = Duration.between(Instant.now(), expiresAt);
+        return Math.max(0, Math.min(ttl.toNanos(), maxTtl.toNanos()));
+    }
+}
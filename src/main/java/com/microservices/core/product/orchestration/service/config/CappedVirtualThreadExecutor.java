@@ -0,0 +1,100 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs every task on its own virtual thread, at most maxConcurrency of them at once. The tasks over the cap wait for a
+// permit on their virtual thread, which costs little. Beyond maxWaiting waiting tasks, new ones are rejected, as a full
+// task queue would.
+public class CappedVirtualThreadExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    private final Semaphore permits;
+
+    private final int maxWaiting;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public CappedVirtualThreadExecutor(String name, int maxConcurrency, int maxWaiting) {
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxWaiting = maxWaiting;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        // Counted as waiting from the submission on, so that the bound holds before the virtual thread starts.
+        if(waiting.incrementAndGet() > maxWaiting + permits.availablePermits()) {
+            waiting.decrementAndGet();
+            throw new RejectedExecutionException("Too many tasks waiting for a free slot: %d".formatted(maxWaiting));
+        }
+
+        try {
+            delegate.execute(() -> run(command));
+        } catch (RejectedExecutionException ex) {
+            waiting.decrementAndGet();
+            throw ex;
+        }
+    }
+
+    private void run(Runnable command) {
+        boolean acquired;
+
+        try {
+            permits.acquire();
+            acquired = true;
+        } catch (InterruptedException ex) {
+            // Interrupted by shutdownNow. The task still runs, with the interrupt status set, so that whoever waits on it
+            // is completed rather than left hanging.
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        try {
+            command.run();
+        } finally {
+            if(acquired) {
+                permits.release();
+            }
+        }
+    }
+
+    // Tasks that have been submitted and wait for a permit.
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
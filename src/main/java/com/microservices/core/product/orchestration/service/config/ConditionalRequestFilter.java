@@ -0,0 +1,187 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+
+// Revalidates the reads of a downstream service instead of transferring them again. The body of the last response
+// carrying an ETag is kept per URL and Accept header, the next read sends the ETag in If-None-Match and a 304 Not
+// Modified is answered with the kept body. Responses without an ETag pass through untouched.
+// The body is passed on as it arrives and copied aside, so that decoding stays incremental and a consumer that stops
+// early still cancels the transfer. Streaming media types and bodies over maxBodyBytes are not kept.
+public class ConditionalRequestFilter implements ExchangeFilterFunction {
+
+    public static final String CONDITIONAL_COUNTER = "orchestration.remote.conditional";
+
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM, SmileCodecConfig.APPLICATION_STREAM_SMILE);
+
+    private final Cache<CacheKey, CachedResponse> responses;
+
+    private final long maxBodyBytes;
+
+    private final Counter notModifiedCounter;
+
+    private final Counter modifiedCounter;
+
+    public ConditionalRequestFilter(String serviceName, long maxWeightBytes, long maxBodyBytes, MeterRegistry meterRegistry) {
+        this.maxBodyBytes = maxBodyBytes;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((CacheKey key, CachedResponse response) -> response.body().length)
+                .build();
+
+        this.notModifiedCounter = Counter.builder(CONDITIONAL_COUNTER)
+                .description("Conditional reads sent to a downstream service")
+                .tag("service", serviceName)
+                .tag("result", "not_modified")
+                .register(meterRegistry);
+
+        this.modifiedCounter = Counter.builder(CONDITIONAL_COUNTER)
+                .description("Conditional reads sent to a downstream service")
+                .tag("service", serviceName)
+                .tag("result", "modified")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        // Requests that are already conditional belong to the caller.
+        if(!HttpMethod.GET.equals(request.method()) || request.headers().containsKey(HttpHeaders.IF_NONE_MATCH) || isStreaming(request.headers().getAccept())) {
+            return next.exchange(request);
+        }
+
+        CacheKey key = new CacheKey(request.url(), request.headers().getAccept());
+        CachedResponse cached = responses.getIfPresent(key);
+
+        ClientRequest conditionalRequest = Objects.isNull(cached) ? request : ClientRequest.from(request)
+                .headers(headers -> headers.setIfNoneMatch(cached.eTag()))
+                .build();
+
+        return next.exchange(conditionalRequest).map(response -> {
+            if(Objects.nonNull(cached)) {
+                if(response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                    notModifiedCounter.increment();
+                    return buildResponse(response, cached);
+                }
+                modifiedCounter.increment();
+            }
+
+            HttpHeaders responseHeaders = response.headers().asHttpHeaders();
+            String eTag = responseHeaders.getETag();
+
+            if(!response.statusCode().is2xxSuccessful() || Objects.isNull(eTag) || !isKeepable(responseHeaders)) {
+                if(response.statusCode().is2xxSuccessful()) {
+                    responses.invalidate(key);
+                }
+                return response;
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(responseHeaders);
+
+            // The body is only kept once it is read completely.
+            return response.mutate()
+                    .body(body -> {
+                        BodyCopy bodyCopy = new BodyCopy(maxBodyBytes);
+
+                        return body
+                                .doOnNext(bodyCopy::append)
+                                .doOnComplete(() -> {
+                                    byte[] bytes = bodyCopy.toByteArray();
+
+                                    if(Objects.nonNull(bytes)) {
+                                        responses.put(key, new CachedResponse(eTag, headers, bytes));
+                                    } else {
+                                        responses.invalidate(key);
+                                    }
+                                });
+                    })
+                    .build();
+        });
+    }
+
+    private boolean isKeepable(HttpHeaders responseHeaders) {
+        MediaType contentType = responseHeaders.getContentType();
+
+        if(Objects.nonNull(contentType) && isStreaming(List.of(contentType))) {
+            return false;
+        }
+        return responseHeaders.getContentLength() <= maxBodyBytes;
+    }
+
+    private static boolean isStreaming(List<MediaType> mediaTypes) {
+        return mediaTypes.stream().anyMatch(mediaType -> STREAMING_MEDIA_TYPES.stream().anyMatch(mediaType::equalsTypeAndSubtype));
+    }
+
+    private ClientResponse buildResponse(ClientResponse notModifiedResponse, CachedResponse cached) {
+        return notModifiedResponse.mutate()
+                .statusCode(HttpStatus.OK)
+                .headers(headers -> {
+                    headers.clear();
+                    headers.putAll(cached.headers());
+                })
+                .body(Flux.defer(() -> Flux.just((DataBuffer) DefaultDataBufferFactory.sharedInstance.wrap(cached.body()))))
+                .build();
+    }
+
+    private record CacheKey(URI url, List<MediaType> accept) {
+    }
+
+    // Copies the readable bytes of the buffers without consuming them, until the body grows over the limit.
+    private static class BodyCopy {
+
+        private final long maxBytes;
+
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        BodyCopy(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        void append(DataBuffer buffer) {
+            if(Objects.isNull(bytes)) {
+                return;
+            }
+
+            if(bytes.size() + buffer.readableByteCount() > maxBytes) {
+                bytes = null;
+                return;
+            }
+
+            try(DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while(iterator.hasNext()) {
+                    ByteBuffer byteBuffer = iterator.next();
+                    byte[] chunk = new byte[byteBuffer.remaining()];
+                    byteBuffer.get(chunk);
+                    bytes.writeBytes(chunk);
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            return Objects.isNull(bytes) ? null : bytes.toByteArray();
+        }
+    }
+
+    private record CachedResponse(String eTag, HttpHeaders headers, byte[] body) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Connection settings of the downstream services, bound from app.service.<name>, for instance app.service.review.pool.maxConnections.
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app")
+public class DownstreamServiceProperties {
+
+    private Map<String, Service> service = new HashMap<>();
+
+    public Service get(String name) {
+        return service.computeIfAbsent(name, key -> new Service());
+    }
+
+    @Getter
+    @Setter
+    public static class Service {
+
+        private Pool pool = new Pool();
+
+        private Conditional conditional = new Conditional();
+
+        // Offers HTTP/2 cleartext through an HTTP/1.1 upgrade, services that decline keep talking HTTP/1.1.
+        private boolean h2c = false;
+
+        // Asks for Smile ahead of JSON on reads, the response content type decides which decoder is used.
+        private boolean smile = false;
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        private Duration responseTimeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Conditional {
+
+        // Revalidates reads with If-None-Match when the service answers with an ETag.
+        private boolean enabled = true;
+
+        // Bodies kept to answer 304 Not Modified responses.
+        private long maxWeightBytes = 16 * 1024 * 1024;
+
+        // Larger bodies pass through without being kept, so that they are never held in memory as a whole.
+        private long maxBodyBytes = 1024 * 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private int maxConnections = 100;
+
+        // Requests waiting for a connection beyond this count fail at once instead of queueing.
+        private int pendingAcquireMaxCount = 500;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(1);
+
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        private Duration evictInBackground = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,106 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+// Keeps the JWK set of the authorization server in memory and refreshes it in the background, so that key rotation is
+// picked up without a request waiting for it. The set is first loaded at startup. A token signed with a key missing from
+// the set is rejected right away and triggers a refresh in the background, at most once per minimum refresh interval.
+// Requests never wait for the authorization server.
+@Slf4j
+public class RefreshingJwkSource {
+
+    private final Mono<String> jwkSetLoader;
+
+    private final Duration refreshInterval;
+
+    private final Duration minRefreshInterval;
+
+    private volatile JWKSet jwkSet;
+
+    private volatile long lastRefreshNanos;
+
+    private Mono<JWKSet> inFlightRefresh;
+
+    private Disposable refreshTask;
+
+    public RefreshingJwkSource(Mono<String> jwkSetLoader, Duration refreshInterval, Duration minRefreshInterval) {
+        this.jwkSetLoader = jwkSetLoader;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+        this.lastRefreshNanos = System.nanoTime() - minRefreshInterval.toNanos();
+    }
+
+    public Flux<JWK> getKeys(SignedJWT jwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader()));
+        JWKSet currentJwkSet = jwkSet;
+        List<JWK> keys = Objects.isNull(currentJwkSet) ? List.of() : selector.select(currentJwkSet);
+
+        if(keys.isEmpty()) {
+            log.debug("No key found for key ID: {}", jwt.getHeader().getKeyID());
+            triggerRefresh();
+        }
+
+        return Flux.fromIterable(keys);
+    }
+
+    public void start() {
+        refresh().subscribe(null, ex -> log.warn("JWK set prefetch failed, the keys are loaded with the next refresh: {}", ex.getMessage()));
+
+        refreshTask = Flux.interval(refreshInterval, refreshInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh().onErrorResume(ex -> {
+                    log.warn("JWK set refresh failed, keeping the current keys: {}", ex.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    public void close() {
+        if(Objects.nonNull(refreshTask)) {
+            refreshTask.dispose();
+        }
+    }
+
+    private void triggerRefresh() {
+        if(System.nanoTime() - lastRefreshNanos < minRefreshInterval.toNanos()) {
+            return;
+        }
+
+        refresh().subscribe(null, ex -> log.warn("JWK set refresh failed, keeping the current keys: {}", ex.getMessage()));
+    }
+
+    // Concurrent callers share one request.
+    private synchronized Mono<JWKSet> refresh() {
+        if(Objects.isNull(inFlightRefresh)) {
+            inFlightRefresh = jwkSetLoader
+                    .flatMap(body -> Mono.fromCallable(() -> JWKSet.parse(body)))
+                    .doOnNext(loadedJwkSet -> {
+                        jwkSet = loadedJwkSet;
+                        log.debug("Loaded JWK set with {} keys", loadedJwkSet.getKeys().size());
+                    })
+                    // Failed attempts count as well, so that unknown key IDs do not hammer a failing authorization server.
+                    .doFinally(signal -> {
+                        lastRefreshNanos = System.nanoTime();
+                        clearRefresh();
+                    })
+                    .cache();
+        }
+        return inFlightRefresh;
+    }
+
+    private synchronized void clearRefresh() {
+        inFlightRefresh = null;
+    }
+}
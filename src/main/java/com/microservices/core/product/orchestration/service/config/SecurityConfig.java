@@ -1,17 +1,48 @@
 package com.microservices.core.product.orchestration.service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
+    @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}")
+    private String issuerUri;
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri:}")
+    private String jwkSetUri;
+
+    @Value("${app.security.jwt.jwkRefreshInterval:PT5M}")
+    private Duration jwkRefreshInterval;
+
+    @Value("${app.security.jwt.jwkMinRefreshInterval:PT30S}")
+    private Duration jwkMinRefreshInterval;
+
+    @Value("${app.security.jwt.cache.maxEntries:10000}")
+    private Long jwtCacheMaxEntries;
+
+    @Value("${app.security.jwt.cache.maxTtl:PT5M}")
+    private Duration jwtCacheMaxTtl;
+
     @Bean
     public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity security) {
 
@@ -26,4 +57,53 @@ public class SecurityConfig {
 
         return security.build();
     }
+
+    // Not load balanced, the authorization server is not registered in service discovery. The keys are prefetched at startup.
+    @Bean(initMethod = "start")
+    public RefreshingJwkSource jwkSource() {
+        WebClient webClient = WebClient.create();
+
+        return new RefreshingJwkSource(getJwkSetUri(webClient).flatMap(uri -> webClient.get().uri(uri).retrieve().bodyToMono(String.class)),
+                jwkRefreshInterval, jwkMinRefreshInterval);
+    }
+
+    // Replaces the decoder Spring Boot builds from the issuer URI. The tokens are verified against the keys kept by the
+    // JWK source and the verified ones are cached.
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(RefreshingJwkSource jwkSource, MeterRegistry meterRegistry) {
+        NimbusReactiveJwtDecoder jwtDecoder = NimbusReactiveJwtDecoder.withJwkSource(jwkSource::getKeys).build();
+
+        if(StringUtils.hasText(issuerUri)) {
+            jwtDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        }
+
+        return new CachingJwtDecoder(jwtDecoder, jwtCacheMaxEntries, jwtCacheMaxTtl, meterRegistry);
+    }
+
+    // The JWK set URI is configured, or else discovered from the issuer the same way Spring Boot does it. A discovered URI
+    // is kept, a failed discovery is tried again with the next refresh.
+    private Mono<String> getJwkSetUri(WebClient webClient) {
+        if(StringUtils.hasText(jwkSetUri)) {
+            return Mono.just(jwkSetUri);
+        }
+
+        if(!StringUtils.hasText(issuerUri)) {
+            return Mono.error(new IllegalStateException("Neither a JWK set URI nor an issuer URI is configured"));
+        }
+
+        return getMetadata(webClient, "/.well-known/openid-configuration")
+                .onErrorResume(ex -> getMetadata(webClient, "/.well-known/oauth-authorization-server"))
+                .map(metadata -> metadata.get("jwks_uri"))
+                .filter(String.class::isInstance)
+                .cast(String.class)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("No jwks_uri in the metadata of issuer: " + issuerUri)))
+                .cache(uri -> Duration.ofMillis(Long.MAX_VALUE), ex -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private Mono<Map<String, Object>> getMetadata(WebClient webClient, String path) {
+        return webClient.get()
+                .uri(UriComponentsBuilder.fromUriString(issuerUri).path(path).build().toUri())
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<>() {});
+    }
 }
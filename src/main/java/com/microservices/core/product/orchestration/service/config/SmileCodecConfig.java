@@ -0,0 +1,38 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+// Smile is the binary form of the JSON data model, it is negotiated through the Accept header next to JSON, which stays
+// the default. CBOR is not offered because the WebFlux CBOR decoder cannot decode a stream of elements.
+// The codecs apply to the server and to the WebClient instances built from the WebClient.Builder.
+@Configuration
+public class SmileCodecConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    public static final MediaType APPLICATION_STREAM_SMILE = MediaType.parseMediaType(APPLICATION_STREAM_SMILE_VALUE);
+
+    // The one Smile mapper, built from the Spring Boot builder so that Smile uses the same modules and features as JSON.
+    // It is shared through the encoder, an ObjectMapper bean would replace the JSON mapper of Spring Boot.
+    @Bean
+    public Jackson2SmileEncoder smileEncoder(Jackson2ObjectMapperBuilder builder) {
+        return new Jackson2SmileEncoder(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2SmileEncoder smileEncoder) {
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileEncoder.getObjectMapper()));
+            configurer.defaultCodecs().jackson2SmileEncoder(smileEncoder);
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Every downstream service gets a connection pool of its own, so that a slow service cannot take the connections
+// of the others. The pools publish the reactor.netty.connection.provider metrics tagged with their name.
+@Configuration
+public class WebClientConfig {
+
+    public static final String PRODUCT_WEB_CLIENT = "productWebClient";
+    public static final String REVIEW_WEB_CLIENT = "reviewWebClient";
+    public static final String RECOMMENDATION_WEB_CLIENT = "recommendationWebClient";
+
+    @Autowired
+    private DownstreamServiceProperties downstreamServiceProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final List<MediaType> SMILE_PREFERRED = List.of(SmileCodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON.withQuality(0.9));
+
+    private final List<ConnectionProvider> connectionProviders = new CopyOnWriteArrayList<>();
+
+    @Bean(PRODUCT_WEB_CLIENT)
+    public WebClient productWebClient(WebClient.Builder builder) {
+        return buildWebClient(builder, "product");
+    }
+
+    @Bean(REVIEW_WEB_CLIENT)
+    public WebClient reviewWebClient(WebClient.Builder builder) {
+        return buildWebClient(builder, "review");
+    }
+
+    @Bean(RECOMMENDATION_WEB_CLIENT)
+    public WebClient recommendationWebClient(WebClient.Builder builder) {
+        return buildWebClient(builder, "recommendation");
+    }
+
+    @PreDestroy
+    void destroy() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+
+    static Mono<ClientResponse> preferSmile(ClientRequest request, ExchangeFunction next) {
+        if(!HttpMethod.GET.equals(request.method()) || !request.headers().getAccept().isEmpty()) {
+            return next.exchange(request);
+        }
+
+        return next.exchange(ClientRequest.from(request).headers(headers -> headers.setAccept(SMILE_PREFERRED)).build());
+    }
+
+    private WebClient buildWebClient(WebClient.Builder builder, String serviceName) {
+        DownstreamServiceProperties.Service service = downstreamServiceProperties.get(serviceName);
+        DownstreamServiceProperties.Pool pool = service.getPool();
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder(serviceName + "-service")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(true)
+                .build();
+        connectionProviders.add(connectionProvider);
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) service.getConnectTimeout().toMillis())
+                .responseTimeout(service.getResponseTimeout());
+
+        // Concurrent requests share the streams of an HTTP/2 connection, a new connection is only opened once
+        // the existing ones have no stream left.
+        if(service.isH2c()) {
+            httpClient = httpClient.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C);
+        }
+
+        // The builder is cloned, so that the filters it carries, such as the load balancer, apply to every client.
+        WebClient.Builder serviceBuilder = builder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+
+        if(service.isSmile()) {
+            serviceBuilder.filter(WebClientConfig::preferSmile);
+        }
+
+        // Added after the Smile filter, so that the kept responses are told apart by the Accept header it sets.
+        if(service.getConditional().isEnabled()) {
+            serviceBuilder.filter(new ConditionalRequestFilter(serviceName, service.getConditional().getMaxWeightBytes(), service.getConditional().getMaxBodyBytes(), meterRegistry));
+        }
+
+        return serviceBuilder.build();
+    }
+}
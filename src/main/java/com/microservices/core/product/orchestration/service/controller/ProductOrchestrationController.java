@@ -1,7 +1,19 @@
 package com.microservices.core.product.orchestration.service.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.cache.SerializedAggregate;
+import com.microservices.core.product.orchestration.service.config.SmileCodecConfig;
+import com.microservices.core.product.orchestration.service.dto.AggregatePage;
+import com.microservices.core.product.orchestration.service.dto.AggregateSection;
+import com.microservices.core.product.orchestration.service.dto.BulkItemResultDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateChunkDTO;
 import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateResultDTO;
+import com.microservices.core.product.orchestration.service.dto.TaggedProductAggregate;
+import com.microservices.core.product.orchestration.service.util.ProductOrchestrationUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,16 +22,23 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import com.microservices.core.product.orchestration.service.remote.IntegrationService;
+import com.microservices.core.util.exceptions.InvalidInputException;
 import com.microservices.core.util.exceptions.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -30,21 +49,118 @@ public class ProductOrchestrationController {
     @Autowired
     private IntegrationService integrationService;
 
-    @Operation(summary = "Returns the product details and associated data")
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Jackson2SmileEncoder smileEncoder;
+
+    @Value("${app.batch.maxSize:100}")
+    private Integer batchMaxSize;
+
+    @Operation(summary = "Returns the product details and associated data, streamed section by section when NDJSON or SSE is accepted")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(implementation = ProductAggregateDTO.class))),
+            @ApiResponse(responseCode = "200", description = "OK", content = {
+                    @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ProductAggregateDTO.class)),
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = ProductAggregateChunkDTO.class)),
+                    @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = ProductAggregateChunkDTO.class)),
+                    @Content(mediaType = SmileCodecConfig.APPLICATION_SMILE_VALUE, schema = @Schema(implementation = ProductAggregateDTO.class))
+            }),
+            @ApiResponse(responseCode = "304", description = "Not Modified, the aggregate still matches the ETag in If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Provided Product ID is invalid"),
             @ApiResponse(responseCode = "404", description = "Product not found"),
             @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
-    @GetMapping(value = "/product-orchestration/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    ResponseEntity<Mono<ProductAggregateDTO>> getAggregatedProductDetails(@PathVariable("productId") Long productId) {
+    @GetMapping(value = "/product-orchestration/{productId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE, SmileCodecConfig.APPLICATION_SMILE_VALUE})
+    Mono<ResponseEntity<?>> getAggregatedProductDetails(@PathVariable("productId") Long productId,
+                                                        @Parameter(description = "Sections to include: product, reviews, recommendations. All sections when omitted.") @RequestParam(name = "include", required = false) List<String> include,
+                                                        @Parameter(description = "Number of reviews and recommendations to skip") @RequestParam(name = "offset", required = false) Integer offset,
+                                                        @Parameter(description = "Maximum number of reviews and recommendations to return") @RequestParam(name = "limit", required = false) Integer limit,
+                                                        @RequestHeader HttpHeaders headers) {
 
         if(Objects.isNull(productId) || productId < 1) {
             throw new NotFoundException("No product found for ID: %s".formatted(productId));
         }
 
-        return ResponseEntity.ok(integrationService.getProductAggregate(productId));
+        Set<AggregateSection> sections = AggregateSection.parse(include);
+        AggregatePage page = integrationService.getAggregatePage(offset, limit);
+        MediaType responseMediaType = getResponseMediaType(headers);
+
+        if(MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(responseMediaType) || MediaType.TEXT_EVENT_STREAM.equalsTypeAndSubtype(responseMediaType)) {
+            return Mono.just(ResponseEntity.ok().contentType(responseMediaType).body(integrationService.getProductAggregateStream(productId, sections, page)));
+        }
+
+        if(MediaType.APPLICATION_JSON.equals(responseMediaType)) {
+            SerializedAggregate cachedJson = integrationService.getCachedProductAggregateJson(productId, sections, page);
+
+            if(Objects.nonNull(cachedJson)) {
+                return Mono.just(buildResponse(cachedJson.json(), MediaType.APPLICATION_JSON,
+                        ProductOrchestrationUtil.buildAggregateETag(cachedJson.contentHash(), MediaType.APPLICATION_JSON)));
+            }
+        }
+
+        return integrationService.getTaggedProductAggregate(productId, sections, page)
+                .flatMap(productAggregate -> Mono.fromCallable(() -> buildResponse(productAggregate, responseMediaType)));
+    }
+
+    // The ETag is built from the content hash kept with the aggregate, it differs between JSON and Smile. When it matches
+    // If-None-Match, the response is turned into a 304 Not Modified.
+    private ResponseEntity<?> buildResponse(TaggedProductAggregate productAggregate, MediaType mediaType) throws JsonProcessingException {
+        ObjectMapper mapper = SmileCodecConfig.APPLICATION_SMILE.equals(mediaType) ? smileEncoder.getObjectMapper() : objectMapper;
+        return buildResponse(mapper.writeValueAsBytes(productAggregate.aggregate()), mediaType,
+                ProductOrchestrationUtil.buildAggregateETag(productAggregate.contentHash(), mediaType));
+    }
+
+    private ResponseEntity<?> buildResponse(byte[] body, MediaType mediaType, String eTag) {
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    @Operation(summary = "Returns the product details and associated data of multiple products, streamed as they are resolved")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(implementation = ProductAggregateResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Provided Product IDs are invalid"),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @GetMapping(value = "/product-orchestration", params = "ids", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE, SmileCodecConfig.APPLICATION_STREAM_SMILE_VALUE, SmileCodecConfig.APPLICATION_SMILE_VALUE})
+    Flux<ProductAggregateResultDTO> getAggregatedProductDetailsBatch(@RequestParam("ids") List<Long> productIds,
+                                                                           @Parameter(description = "Sections to include: product, reviews, recommendations. All sections when omitted.") @RequestParam(name = "include", required = false) List<String> include) {
+
+        if(Objects.isNull(productIds) || productIds.isEmpty()) {
+            throw new InvalidInputException("At least one product ID is required");
+        }
+
+        if(productIds.size() > batchMaxSize) {
+            throw new InvalidInputException("At most %s product IDs can be requested at once".formatted(batchMaxSize));
+        }
+
+        return integrationService.getProductAggregates(productIds, AggregateSection.parse(include));
+    }
+
+    // Only clients explicitly asking for a streaming or binary media type get it, wildcards keep the single JSON document.
+    private MediaType getResponseMediaType(HttpHeaders headers) {
+        List<MediaType> acceptedMediaTypes = headers.getAccept().stream()
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .toList();
+
+        for(MediaType acceptedMediaType : acceptedMediaTypes) {
+            if(acceptedMediaType.isWildcardType() || acceptedMediaType.isWildcardSubtype() || MediaType.APPLICATION_JSON.equalsTypeAndSubtype(acceptedMediaType)) {
+                return MediaType.APPLICATION_JSON;
+            }
+
+            if(SmileCodecConfig.APPLICATION_SMILE.equalsTypeAndSubtype(acceptedMediaType)) {
+                return SmileCodecConfig.APPLICATION_SMILE;
+            }
+
+            if(MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(acceptedMediaType) || MediaType.TEXT_EVENT_STREAM.equalsTypeAndSubtype(acceptedMediaType)) {
+                return acceptedMediaType.removeQualityValue();
+            }
+        }
+
+        return MediaType.APPLICATION_JSON;
     }
 
     @Operation(summary = "Create the product and associated data")
@@ -54,7 +170,7 @@ public class ProductOrchestrationController {
             @ApiResponse(responseCode = "404", description = "Product not found"),
             @ApiResponse(responseCode = "500", description = "Internal Server Error")
     })
-    @PostMapping(value = "/product-orchestration", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PostMapping(value = "/product-orchestration", consumes = MediaType.APPLICATION_JSON_VALUE, produces = {MediaType.APPLICATION_JSON_VALUE, SmileCodecConfig.APPLICATION_SMILE_VALUE})
     ResponseEntity<Flux<?>> createProductAggregate(@RequestParam(name = "isAsync", defaultValue = "false") boolean isAsync, @RequestBody ProductAggregateDTO productAggregateDTO) {
 
         if(isAsync) {
@@ -64,6 +180,16 @@ public class ProductOrchestrationController {
         return new ResponseEntity<>(integrationService.createProductAggregate(productAggregateDTO), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Create the products and associated data streamed one per line, with one result line per product")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK, every line tells whether its product was created", content = @Content(schema = @Schema(implementation = BulkItemResultDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @PostMapping(value = "/product-orchestration/bulk", consumes = {MediaType.APPLICATION_NDJSON_VALUE, SmileCodecConfig.APPLICATION_STREAM_SMILE_VALUE}, produces = {MediaType.APPLICATION_NDJSON_VALUE, SmileCodecConfig.APPLICATION_STREAM_SMILE_VALUE})
+    Flux<BulkItemResultDTO> createProductAggregates(@RequestParam(name = "isAsync", defaultValue = "false") boolean isAsync, @RequestBody Flux<ProductAggregateDTO> productAggregateDTOS) {
+        return integrationService.createProductAggregates(productAggregateDTOS, isAsync);
+    }
+
     @Operation(summary = "Delete the product and associated data")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK"),
@@ -78,4 +204,17 @@ public class ProductOrchestrationController {
         }
         return integrationService.deleteProductAggregate(productId);
     }
+
+    @Operation(summary = "Delete the products given as a JSON array or one ID per line, with one result line per product")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK, every line tells whether its product was deleted", content = @Content(schema = @Schema(implementation = BulkItemResultDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error")
+    })
+    @PostMapping(value = "/product-orchestration/bulk-delete", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = {MediaType.APPLICATION_NDJSON_VALUE, SmileCodecConfig.APPLICATION_STREAM_SMILE_VALUE})
+    Flux<BulkItemResultDTO> deleteProductAggregates(@RequestParam(name = "isAsync", defaultValue = "false") boolean isAsync, @RequestBody Flux<Long> productIds) {
+        if(isAsync) {
+            return integrationService.deleteProductAggregatesAsync(productIds);
+        }
+        return integrationService.deleteProductAggregates(productIds);
+    }
 }
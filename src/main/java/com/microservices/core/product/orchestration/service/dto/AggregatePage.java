@@ -0,0 +1,4 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+public record AggregatePage(int offset, int limit) {
+}
@@ -0,0 +1,44 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.microservices.core.util.exceptions.InvalidInputException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+public enum AggregateSection {
+    PRODUCT,
+    REVIEWS,
+    RECOMMENDATIONS;
+
+    public static final Set<AggregateSection> ALL = Collections.unmodifiableSet(EnumSet.allOf(AggregateSection.class));
+
+    public static Set<AggregateSection> parse(Collection<String> values) {
+        if(Objects.isNull(values) || values.isEmpty()) {
+            return ALL;
+        }
+
+        EnumSet<AggregateSection> sections = EnumSet.noneOf(AggregateSection.class);
+
+        for(String value : values) {
+            if(Objects.isNull(value) || value.isBlank()) {
+                continue;
+            }
+
+            try {
+                sections.add(AggregateSection.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidInputException("Unknown aggregate section: %s, expected one of: %s".formatted(value, ALL));
+            }
+        }
+
+        return sections.isEmpty() ? ALL : Collections.unmodifiableSet(sections);
+    }
+
+    public static boolean isComplete(Set<AggregateSection> sections) {
+        return Objects.isNull(sections) || sections.containsAll(ALL);
+    }
+}
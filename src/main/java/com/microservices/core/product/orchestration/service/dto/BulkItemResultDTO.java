@@ -0,0 +1,19 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+// One line of a bulk response. The index is the position of the item in the request, it is missing when the request
+// itself could not be read.
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResultDTO(@JsonProperty("index")Long index, @JsonProperty("productId")Long productId, @JsonProperty("status")Status status, @JsonProperty("error")String error) {
+
+    public enum Status {
+        CREATED,
+        ACCEPTED,
+        DELETED,
+        FAILED
+    }
+}
@@ -0,0 +1,10 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PageInfoDTO(@JsonProperty("offset")Integer offset, @JsonProperty("limit")Integer limit, @JsonProperty("returned")Integer returned, @JsonProperty("hasMore")Boolean hasMore, @JsonProperty("totalCount")Long totalCount) {
+}
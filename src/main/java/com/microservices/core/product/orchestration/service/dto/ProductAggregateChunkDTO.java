@@ -0,0 +1,19 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductAggregateChunkDTO(@JsonProperty("type")Type type, @JsonProperty("productId")Long productId, @JsonProperty("name")String name, @JsonProperty("weight")Integer weight, @JsonProperty("reviewSummary")ReviewSummaryDTO reviewSummary, @JsonProperty("recommendationSummary")RecommendationSummaryDTO recommendationSummary, @JsonProperty("serviceAddresses")ServiceAddressesDTO serviceAddresses, @JsonProperty("warnings")List<String> warnings, @JsonProperty("reviewPage")PageInfoDTO reviewPage, @JsonProperty("recommendationPage")PageInfoDTO recommendationPage) {
+
+    public enum Type {
+        PRODUCT,
+        REVIEW,
+        RECOMMENDATION,
+        COMPLETE
+    }
+}
@@ -1,10 +1,12 @@
 package com.microservices.core.product.orchestration.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Builder;
 
 import java.util.List;
 
 @Builder
-public record ProductAggregateDTO(@JsonProperty("productId") Long productId, @JsonProperty("name")String name, @JsonProperty("weight")Integer weight, @JsonProperty("recommendationSummaries")List<RecommendationSummaryDTO> recommendationSummaries, @JsonProperty("reviewSummaries")List<ReviewSummaryDTO> reviewSummaries, @JsonProperty("serviceAddresses")ServiceAddressesDTO serviceAddresses, @JsonProperty("warnings")List<String> warnings) {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductAggregateDTO(@JsonProperty("productId") Long productId, @JsonProperty("name")String name, @JsonProperty("weight")Integer weight, @JsonProperty("recommendationSummaries")List<RecommendationSummaryDTO> recommendationSummaries, @JsonProperty("reviewSummaries")List<ReviewSummaryDTO> reviewSummaries, @JsonProperty("serviceAddresses")ServiceAddressesDTO serviceAddresses, @JsonProperty("warnings")List<String> warnings, @JsonProperty("reviewPage")PageInfoDTO reviewPage, @JsonProperty("recommendationPage")PageInfoDTO recommendationPage) {
 }
@@ -0,0 +1,10 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record ProductAggregateResultDTO(@JsonProperty("productId")Long productId, @JsonProperty("productAggregate")ProductAggregateDTO productAggregate, @JsonProperty("error")String error, @JsonProperty("warnings")List<String> warnings) {
+}
@@ -0,0 +1,12 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.microservices.core.product.orchestration.service.util.ProductOrchestrationUtil;
+
+// An aggregate with the hash of its content. The hash is computed once when the aggregate is built and is cached next to it,
+// so that answering a conditional request does not read the content again.
+public record TaggedProductAggregate(ProductAggregateDTO aggregate, String contentHash) {
+
+    public static TaggedProductAggregate of(ProductAggregateDTO aggregate) {
+        return new TaggedProductAggregate(aggregate, ProductOrchestrationUtil.hashAggregateContent(aggregate));
+    }
+}
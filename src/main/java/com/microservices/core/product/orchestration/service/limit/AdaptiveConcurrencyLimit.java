@@ -0,0 +1,105 @@
+package com.microservices.core.product.orchestration.service.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gradient based concurrency limit. The limit follows the ratio between the long term average latency and the latency
+// of the latest request: it grows while requests are as fast as usual and shrinks as soon as they queue up somewhere,
+// well before the pools and queues behind it are exhausted. Failed requests cut the limit multiplicatively.
+class AdaptiveConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double smoothing;
+
+    private final int longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+
+    private double longRttNanos;
+
+    private long samples;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, int longWindow) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+    }
+
+    boolean tryAcquire() {
+        while(true) {
+            int current = inFlight.get();
+
+            if(current >= getLimit()) {
+                return false;
+            }
+
+            if(inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Releases a permit without feeding its latency to the limit, for instance when the client went away.
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    void onSuccess(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        update(rttNanos, current, false);
+    }
+
+    void onDropped(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        update(rttNanos, current, true);
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        samples++;
+        // Averages over the first samples until the window is filled, exponentially afterwards.
+        double factor = 1.0 / Math.min(samples, longWindow);
+        longRttNanos = longRttNanos + (rttNanos - longRttNanos) * factor;
+
+        if(dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            return;
+        }
+
+        // Once the latency is back to normal after a long overload, the average catches up faster than the window allows.
+        if(longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // An under-used limit says nothing about the capacity, growing it would only allow a later burst through.
+        if(inFlightAtCompletion < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * longRttNanos / Math.max(rttNanos, 1)));
+        double queueSize = Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
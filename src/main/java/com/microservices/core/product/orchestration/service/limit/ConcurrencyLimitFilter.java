@@ -0,0 +1,208 @@
+package com.microservices.core.product.orchestration.service.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.netty.handler.timeout.ReadTimeoutException;
+import jakarta.annotation.PostConstruct;
+import com.microservices.core.product.orchestration.service.config.SmileCodecConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Sheds the orchestration requests above the adaptive concurrency limit with a 503 instead of queueing them behind the
+// downstream pools. Runs ahead of the security filters, so that a rejected request costs as little as possible.
+// Streaming and bulk requests last as long as their input or output, their latency says nothing about the downstream
+// capacity. They are held to a fixed limit of their own and never sampled.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter implements WebFilter {
+
+    public static final String LIMIT_GAUGE = "orchestration.limit";
+    public static final String IN_FLIGHT_GAUGE = "orchestration.limit.in.flight";
+    public static final String REJECTED_COUNTER = "orchestration.limit.rejected";
+
+    private static final String PATH_PREFIX = "/product-orchestration";
+
+    private static final List<String> BULK_PATHS = List.of(PATH_PREFIX + "/bulk", PATH_PREFIX + "/bulk-delete");
+
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM, SmileCodecConfig.APPLICATION_STREAM_SMILE);
+
+    @Value("${app.limit.read.initial:100}")
+    private Integer readInitialLimit;
+
+    @Value("${app.limit.read.min:20}")
+    private Integer readMinLimit;
+
+    @Value("${app.limit.read.max:1000}")
+    private Integer readMaxLimit;
+
+    @Value("${app.limit.write.initial:50}")
+    private Integer writeInitialLimit;
+
+    @Value("${app.limit.write.min:10}")
+    private Integer writeMinLimit;
+
+    @Value("${app.limit.write.max:500}")
+    private Integer writeMaxLimit;
+
+    @Value("${app.limit.stream.max:20}")
+    private Integer streamMaxLimit;
+
+    @Value("${app.limit.smoothing:0.2}")
+    private Double smoothing;
+
+    @Value("${app.limit.longWindow:600}")
+    private Integer longWindow;
+
+    @Value("${app.limit.retryAfter:PT1S}")
+    private Duration retryAfter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private AdaptiveConcurrencyLimit readLimit;
+
+    private AdaptiveConcurrencyLimit writeLimit;
+
+    private AdaptiveConcurrencyLimit streamLimit;
+
+    private Counter readRejectedCounter;
+
+    private Counter writeRejectedCounter;
+
+    private Counter streamRejectedCounter;
+
+    @PostConstruct
+    void init() {
+        readLimit = new AdaptiveConcurrencyLimit(readInitialLimit, readMinLimit, readMaxLimit, smoothing, longWindow);
+        writeLimit = new AdaptiveConcurrencyLimit(writeInitialLimit, writeMinLimit, writeMaxLimit, smoothing, longWindow);
+        streamLimit = new AdaptiveConcurrencyLimit(streamMaxLimit, streamMaxLimit, streamMaxLimit, smoothing, longWindow);
+
+        readRejectedCounter = registerMeters("read", readLimit);
+        writeRejectedCounter = registerMeters("write", writeLimit);
+        streamRejectedCounter = registerMeters("stream", streamLimit);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if(!exchange.getRequest().getPath().pathWithinApplication().value().startsWith(PATH_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        boolean streaming = isStreaming(exchange.getRequest());
+        boolean read = isRead(exchange.getRequest().getMethod());
+        AdaptiveConcurrencyLimit limit = streaming ? streamLimit : read ? readLimit : writeLimit;
+
+        if(!limit.tryAcquire()) {
+            log.debug("Rejecting {} {}, {} requests in flight", exchange.getRequest().getMethod(), exchange.getRequest().getPath(), limit.getInFlight());
+            (streaming ? streamRejectedCounter : read ? readRejectedCounter : writeRejectedCounter).increment();
+
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())));
+            return exchange.getResponse().setComplete();
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean(false);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        return chain.filter(exchange)
+                .doOnError(error::set)
+                .doFinally(signalType -> {
+                    if(!released.compareAndSet(false, true)) {
+                        return;
+                    }
+
+                    if(streaming || signalType == SignalType.CANCEL) {
+                        limit.release();
+                    } else if(isDropped(exchange.getResponse().getStatusCode(), error.get())) {
+                        limit.onDropped(System.nanoTime() - start);
+                    } else {
+                        limit.onSuccess(System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private Counter registerMeters(String type, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder(LIMIT_GAUGE, limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("type", type)
+                .register(meterRegistry);
+
+        Gauge.builder(IN_FLIGHT_GAUGE, limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests currently holding a concurrency permit")
+                .tag("type", type)
+                .register(meterRegistry);
+
+        return Counter.builder(REJECTED_COUNTER)
+                .description("Requests rejected because the concurrency limit was reached")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    private static boolean isStreaming(ServerHttpRequest request) {
+        if(BULK_PATHS.contains(request.getPath().pathWithinApplication().value())) {
+            return true;
+        }
+        return request.getHeaders().getAccept().stream()
+                .anyMatch(mediaType -> STREAMING_MEDIA_TYPES.stream().anyMatch(mediaType::equalsTypeAndSubtype));
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method);
+    }
+
+    // Server errors, timeouts and rejections mean the downstream path is overloaded. Client errors such as a missing product or
+    // an invalid input say nothing about the capacity, neither do errors that are not known to come from an overload.
+    private static boolean isDropped(HttpStatusCode statusCode, Throwable error) {
+        if(Objects.nonNull(error)) {
+            return isOverload(error);
+        }
+        return Objects.nonNull(statusCode) && statusCode.is5xxServerError();
+    }
+
+    private static boolean isOverload(Throwable error) {
+        for(Throwable cause = error; Objects.nonNull(cause); cause = cause.getCause()) {
+            if(cause instanceof TimeoutException || cause instanceof ReadTimeoutException
+                    || cause instanceof RejectedExecutionException || cause instanceof CallNotPermittedException) {
+                return true;
+            }
+            if(cause instanceof WebClientResponseException responseException) {
+                return responseException.getStatusCode().is5xxServerError();
+            }
+            if(cause instanceof ErrorResponse errorResponse) {
+                return errorResponse.getStatusCode().is5xxServerError();
+            }
+        }
+        return false;
+    }
+}
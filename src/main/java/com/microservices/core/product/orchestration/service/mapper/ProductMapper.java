@@ -18,7 +18,9 @@ public interface ProductMapper {
             @Mapping(target = "recommendationSummaries", ignore = true),
             @Mapping(target = "reviewSummaries", ignore = true),
             @Mapping(target = "serviceAddresses", ignore = true),
-            @Mapping(target = "warnings", ignore = true)
+            @Mapping(target = "warnings", ignore = true),
+            @Mapping(target = "reviewPage", ignore = true),
+            @Mapping(target = "recommendationPage", ignore = true)
     })
     ProductAggregateDTO mapBtoA(ProductDTO productDTO);
 }
@@ -0,0 +1,171 @@
+package com.microservices.core.product.orchestration.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+@Component
+public class OrchestrationMetrics {
+
+    public static final String REMOTE_CALL_TIMER = "orchestration.remote.call";
+    public static final String AGGREGATE_ASSEMBLY_TIMER = "orchestration.aggregate.assembly";
+    public static final String AGGREGATE_TIMER = "orchestration.aggregate";
+
+    public static final String PRODUCT_SERVICE = "product";
+    public static final String REVIEW_SERVICE = "review";
+    public static final String RECOMMENDATION_SERVICE = "recommendation";
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_ERROR = "error";
+    private static final String OUTCOME_CANCELLED = "cancelled";
+    private static final String OUTCOME_FALLBACK = "fallback";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Timers by tag set, so that recording a call does not look the meter up in the registry again.
+    private final Map<TimerKey, Timer> remoteCallTimers = new ConcurrentHashMap<>();
+
+    private final Map<TimerKey, Timer> aggregateTimers = new ConcurrentHashMap<>();
+
+    private volatile Timer assemblyTimer;
+
+    public <T> Mono<T> timeRemoteCall(String service, String operation, Mono<T> call) {
+        return timeRemoteCall(service, operation, call, value -> false, null);
+    }
+
+    public <T> Mono<T> timeRemoteCall(String service, String operation, Mono<T> call, Function<Throwable, Mono<T>> fallback) {
+        return timeRemoteCall(service, operation, call, value -> false, fallback);
+    }
+
+    // The fallback is applied inside the timed section, so a leg served by its fallback is tagged as such.
+    public <T> Mono<T> timeRemoteCall(String service, String operation, Mono<T> call, Predicate<T> isFallbackValue, Function<Throwable, Mono<T>> fallback) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicBoolean failed = new AtomicBoolean(false);
+            AtomicBoolean fallbackFired = new AtomicBoolean(false);
+
+            Mono<T> timedCall = call.doOnNext(value -> {
+                if(isFallbackValue.test(value)) {
+                    fallbackFired.set(true);
+                }
+            });
+
+            if(Objects.nonNull(fallback)) {
+                timedCall = timedCall.onErrorResume(ex -> {
+                    failed.set(true);
+                    fallbackFired.set(true);
+                    return fallback.apply(ex);
+                });
+            }
+
+            return timedCall.doFinally(signal -> stopRemoteCall(sample, service, operation, signal, failed.get(), fallbackFired.get()));
+        });
+    }
+
+    public <T> Flux<T> timeRemoteCall(String service, String operation, Flux<T> call) {
+        return timeRemoteCall(service, operation, call, null);
+    }
+
+    public <T> Flux<T> timeRemoteCall(String service, String operation, Flux<T> call, Function<Throwable, Flux<T>> fallback) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicBoolean failed = new AtomicBoolean(false);
+            AtomicBoolean fallbackFired = new AtomicBoolean(false);
+
+            Flux<T> timedCall = call;
+
+            if(Objects.nonNull(fallback)) {
+                timedCall = timedCall.onErrorResume(ex -> {
+                    failed.set(true);
+                    fallbackFired.set(true);
+                    return fallback.apply(ex);
+                });
+            }
+
+            return timedCall.doFinally(signal -> stopRemoteCall(sample, service, operation, signal, failed.get(), fallbackFired.get()));
+        });
+    }
+
+    public <T> T timeAssembly(Supplier<T> assembly) {
+        Timer timer = assemblyTimer;
+        if(Objects.isNull(timer)) {
+            timer = Timer.builder(AGGREGATE_ASSEMBLY_TIMER)
+                    .description("Time spent building the product aggregate from the downstream responses")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            assemblyTimer = timer;
+        }
+        return timer.record(assembly);
+    }
+
+    public <T> Mono<T> timeAggregate(String operation, Mono<T> aggregate) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+
+            return aggregate.doFinally(signal -> sample.stop(getAggregateTimer(operation, getOutcome(signal, false))));
+        });
+    }
+
+    public <T> Flux<T> timeAggregate(String operation, Flux<T> aggregate) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+
+            return aggregate.doFinally(signal -> sample.stop(getAggregateTimer(operation, getOutcome(signal, false))));
+        });
+    }
+
+    private void stopRemoteCall(Timer.Sample sample, String service, String operation, SignalType signal, boolean failed, boolean fallbackFired) {
+        sample.stop(getRemoteCallTimer(service, operation, getOutcome(signal, failed, fallbackFired), fallbackFired));
+    }
+
+    private Timer getRemoteCallTimer(String service, String operation, String outcome, boolean fallbackFired) {
+        return remoteCallTimers.computeIfAbsent(new TimerKey(service, operation, outcome, fallbackFired), key -> Timer.builder(REMOTE_CALL_TIMER)
+                .description("Time spent on a call to a downstream service, including retries and fallbacks")
+                .tag("service", service)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("fallback", String.valueOf(fallbackFired))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Timer getAggregateTimer(String operation, String outcome) {
+        return aggregateTimers.computeIfAbsent(new TimerKey(null, operation, outcome, false), key -> Timer.builder(AGGREGATE_TIMER)
+                .description("End-to-end time to resolve a product aggregate")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    // A leg served by its fallback is degraded rather than successful, whether the call failed or answered with a fallback value.
+    private String getOutcome(SignalType signal, boolean failed, boolean fallbackFired) {
+        if(signal != SignalType.CANCEL && signal != SignalType.ON_ERROR && fallbackFired) {
+            return OUTCOME_FALLBACK;
+        }
+        return getOutcome(signal, failed);
+    }
+
+    private String getOutcome(SignalType signal, boolean failed) {
+        if(signal == SignalType.CANCEL) {
+            return OUTCOME_CANCELLED;
+        }
+        return signal == SignalType.ON_ERROR || failed ? OUTCOME_ERROR : OUTCOME_SUCCESS;
+    }
+
+    private record TimerKey(String service, String operation, String outcome, boolean fallback) {
+    }
+}
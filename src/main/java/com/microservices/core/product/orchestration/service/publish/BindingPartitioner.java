@@ -0,0 +1,70 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.cloud.stream.binder.DefaultPartitionSelectorStrategy;
+import org.springframework.cloud.stream.binder.PartitionKeyExtractorStrategy;
+import org.springframework.cloud.stream.binder.PartitionSelectorStrategy;
+import org.springframework.cloud.stream.binder.ProducerProperties;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.messaging.Message;
+
+import java.util.Objects;
+
+// Selects the partition of a message the way the binder does for the same binding: the key comes from the partition key
+// expression or extractor of the binding, the partition from its selector expression or strategy, by default the absolute
+// hash code of the key. Like the Kafka binder, the partition count of the topic is used when it is larger than the
+// configured one. A binding that is not partitioned leaves the partition to the producer.
+class BindingPartitioner {
+
+    private final boolean partitioned;
+
+    private final int partitionCount;
+
+    private final Expression partitionKeyExpression;
+
+    private final PartitionKeyExtractorStrategy partitionKeyExtractor;
+
+    private final Expression partitionSelectorExpression;
+
+    private final PartitionSelectorStrategy partitionSelector;
+
+    private final EvaluationContext evaluationContext;
+
+    BindingPartitioner(ProducerProperties producerProperties, EvaluationContext evaluationContext, BeanFactory beanFactory) {
+        this.partitioned = producerProperties.isPartitioned();
+        this.partitionCount = producerProperties.getPartitionCount();
+        this.partitionKeyExpression = producerProperties.getPartitionKeyExpression();
+        this.partitionKeyExtractor = Objects.isNull(producerProperties.getPartitionKeyExtractorName()) ? null
+                : beanFactory.getBean(producerProperties.getPartitionKeyExtractorName(), PartitionKeyExtractorStrategy.class);
+        this.partitionSelectorExpression = producerProperties.getPartitionSelectorExpression();
+        this.partitionSelector = Objects.isNull(producerProperties.getPartitionSelectorName()) ? new DefaultPartitionSelectorStrategy()
+                : beanFactory.getBean(producerProperties.getPartitionSelectorName(), PartitionSelectorStrategy.class);
+        this.evaluationContext = evaluationContext;
+    }
+
+    boolean isPartitioned() {
+        return partitioned;
+    }
+
+    Object extractKey(Message<?> message) {
+        if(!partitioned) {
+            return null;
+        }
+
+        Object key = Objects.nonNull(partitionKeyExtractor) ? partitionKeyExtractor.extractKey(message)
+                : Objects.nonNull(partitionKeyExpression) ? partitionKeyExpression.getValue(evaluationContext, message) : null;
+
+        if(Objects.isNull(key)) {
+            throw new IllegalStateException("No partition key for a message of a partitioned binding");
+        }
+        return key;
+    }
+
+    int selectPartition(Object key, int topicPartitionCount) {
+        int count = Math.max(partitionCount, topicPartitionCount);
+        int partition = Objects.nonNull(partitionSelectorExpression) ? partitionSelectorExpression.getValue(evaluationContext, key, Integer.class)
+                : partitionSelector.selectPartition(key, count);
+        return Math.abs(partition % count);
+    }
+}
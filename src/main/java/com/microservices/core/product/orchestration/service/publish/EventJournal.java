@@ -0,0 +1,425 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only journal made of memory-mapped segment files. Each record is written as [length][crc][entry], a zero length
+// marks the end of the written part of a segment and a record with a wrong checksum is treated as a torn write.
+// Appends may come from any thread, reading and acknowledging is done by a single drainer thread. The position of the
+// first unacknowledged record is kept in a checkpoint file, segments before it are deleted.
+// Forcing only writes back the part of the active segment written since the last force, and does not block appends.
+@Slf4j
+class EventJournal implements Closeable {
+
+    enum FsyncPolicy {
+        // Every append is forced to disk before it completes.
+        ALWAYS,
+        // The active segment is forced to disk periodically by the owner of the journal.
+        INTERVAL,
+        // Writing back is left to the operating system.
+        NEVER
+    }
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("journal-(\\d{20})\\.log");
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int RECORD_HEADER = 8;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final FsyncPolicy fsyncPolicy;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong depth = new AtomicLong();
+
+    private volatile Segment writeSegment;
+
+    // Only used by the drainer thread.
+    private long readSegmentId;
+    private int readOffset;
+    private long checkpointSegmentId = -1L;
+    private int checkpointOffset = -1;
+
+    EventJournal(Path directory, int segmentSize, int maxSegments, FsyncPolicy fsyncPolicy) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.fsyncPolicy = fsyncPolicy;
+
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    synchronized void append(List<Entry> entries) throws IOException {
+        List<byte[]> records = new ArrayList<>(entries.size());
+
+        for(Entry entry : entries) {
+            byte[] record = encode(entry);
+            if(RECORD_HEADER + record.length > segmentSize) {
+                throw new IllegalArgumentException("Journal entry of %d bytes does not fit in a segment".formatted(record.length));
+            }
+            records.add(record);
+        }
+
+        // Checked up front, so that a batch is either appended as a whole or not at all.
+        checkCapacity(records);
+
+        for(byte[] record : records) {
+            if(writeSegment.writePosition + RECORD_HEADER + record.length > writeSegment.capacity()) {
+                roll();
+            }
+
+            int position = writeSegment.writePosition;
+            CRC32C crc = new CRC32C();
+            crc.update(record);
+
+            ByteBuffer buffer = writeSegment.buffer;
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.put(position + RECORD_HEADER, record);
+            buffer.putInt(position, record.length);
+
+            // Publishes the record to the drainer.
+            writeSegment.writePosition = position + RECORD_HEADER + record.length;
+            depth.incrementAndGet();
+        }
+
+        if(fsyncPolicy == FsyncPolicy.ALWAYS) {
+            force(writeSegment);
+        }
+    }
+
+    // Returns up to max records following the last acknowledged one, without consuming them.
+    List<Entry> read(int max) {
+        List<Entry> entries = new ArrayList<>();
+        long segmentId = readSegmentId;
+        int offset = readOffset;
+
+        while(entries.size() < max) {
+            Segment segment = segments.get(segmentId);
+
+            if(Objects.isNull(segment)) {
+                break;
+            }
+
+            // The sealed flag is read before the write position, so that records written before sealing are not missed.
+            boolean sealed = segment.sealed;
+
+            if(offset < segment.writePosition) {
+                Entry entry = decode(segment, offset);
+                entries.add(entry);
+                offset = entry.nextOffset();
+            } else if(sealed && segments.higherKey(segmentId) != null) {
+                segmentId = segments.higherKey(segmentId);
+                offset = 0;
+            } else {
+                break;
+            }
+        }
+
+        return entries;
+    }
+
+    // Marks all the records up to and including the given one as delivered and deletes the segments that are no longer needed.
+    void acknowledge(Entry lastEntry, int count) {
+        readSegmentId = lastEntry.segmentId();
+        readOffset = lastEntry.nextOffset();
+        depth.addAndGet(-count);
+
+        for(Segment segment : List.copyOf(segments.headMap(readSegmentId, false).values())) {
+            segments.remove(segment.id);
+            segment.delete();
+        }
+    }
+
+    long getDepth() {
+        return depth.get();
+    }
+
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    // Not synchronized with the appends, records written while forcing are covered by the next force.
+    void force() {
+        force(writeSegment);
+    }
+
+    void writeCheckpoint() throws IOException {
+        if(checkpointSegmentId == readSegmentId && checkpointOffset == readOffset) {
+            return;
+        }
+
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temporary, "%d %d".formatted(readSegmentId, readOffset), StandardCharsets.UTF_8);
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointSegmentId = readSegmentId;
+        checkpointOffset = readOffset;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        segments.values().forEach(this::force);
+        writeCheckpoint();
+
+        for(Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+
+    // Segments are only removed concurrently by the drainer, so the space found here can only grow until the batch is written.
+    private void checkCapacity(List<byte[]> records) {
+        int segmentsLeft = maxSegments - segments.size();
+        int position = writeSegment.writePosition;
+        int capacity = writeSegment.capacity();
+
+        for(byte[] record : records) {
+            if(position + RECORD_HEADER + record.length > capacity) {
+                if(segmentsLeft-- <= 0) {
+                    throw new RejectedExecutionException("Journal is full, %d segments are waiting to be drained".formatted(segments.size()));
+                }
+                position = 0;
+                capacity = segmentSize;
+            }
+            position += RECORD_HEADER + record.length;
+        }
+    }
+
+    private void roll() throws IOException {
+        if(segments.size() >= maxSegments) {
+            throw new RejectedExecutionException("Journal is full, %d segments are waiting to be drained".formatted(segments.size()));
+        }
+
+        if(fsyncPolicy != FsyncPolicy.NEVER) {
+            force(writeSegment);
+        }
+
+        Segment segment = openSegment(writeSegment.id + 1, segmentSize);
+        segments.put(segment.id, segment);
+        writeSegment.sealed = true;
+        writeSegment = segment;
+    }
+
+    private void force(Segment segment) {
+        int forcedPosition = segment.forcedPosition;
+        int writePosition = segment.writePosition;
+
+        if(writePosition > forcedPosition) {
+            segment.buffer.force(forcedPosition, writePosition - forcedPosition);
+            segment.forcedPosition = writePosition;
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> segmentIds;
+
+        try(Stream<Path> files = Files.list(directory)) {
+            segmentIds = files.map(file -> SEGMENT_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+
+        for(Long segmentId : segmentIds) {
+            Segment segment = openSegment(segmentId, segmentSize);
+            segment.writePosition = findEnd(segment);
+            segment.forcedPosition = segment.writePosition;
+            segment.sealed = true;
+            segments.put(segmentId, segment);
+        }
+
+        if(segments.isEmpty()) {
+            segments.put(1L, openSegment(1L, segmentSize));
+        }
+
+        writeSegment = segments.lastEntry().getValue();
+        writeSegment.sealed = false;
+
+        readCheckpoint();
+
+        depth.set(0);
+        List<Entry> undrained;
+        long segmentId = readSegmentId;
+        int offset = readOffset;
+        // Counts the records that still have to be drained, the cursor is restored afterwards.
+        while(!(undrained = read(1024)).isEmpty()) {
+            depth.addAndGet(undrained.size());
+            Entry last = undrained.get(undrained.size() - 1);
+            readSegmentId = last.segmentId();
+            readOffset = last.nextOffset();
+        }
+        readSegmentId = segmentId;
+        readOffset = offset;
+
+        log.info("Opened event journal in {} with {} segments and {} records to drain", directory, segments.size(), depth.get());
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        readSegmentId = segments.firstKey();
+        readOffset = 0;
+
+        if(!Files.exists(checkpoint)) {
+            return;
+        }
+
+        String[] position = Files.readString(checkpoint, StandardCharsets.UTF_8).trim().split(" ");
+        long checkpointSegmentId = Long.parseLong(position[0]);
+
+        // The checkpoint may point to a segment deleted after it was written, everything before the first segment has been drained.
+        if(segments.containsKey(checkpointSegmentId)) {
+            readSegmentId = checkpointSegmentId;
+            readOffset = Math.min(Integer.parseInt(position[1]), segments.get(checkpointSegmentId).writePosition);
+        }
+    }
+
+    private int findEnd(Segment segment) {
+        int offset = 0;
+
+        while(offset + RECORD_HEADER <= segment.capacity()) {
+            int length = segment.buffer.getInt(offset);
+
+            if(length <= 0 || offset + RECORD_HEADER + length > segment.capacity()) {
+                break;
+            }
+
+            byte[] record = new byte[length];
+            segment.buffer.get(offset + RECORD_HEADER, record);
+            CRC32C crc = new CRC32C();
+            crc.update(record);
+
+            if((int) crc.getValue() != segment.buffer.getInt(offset + 4)) {
+                log.warn("Ignoring torn journal record at offset {} of {}", offset, segment.path);
+                break;
+            }
+
+            offset += RECORD_HEADER + length;
+        }
+
+        return offset;
+    }
+
+    private Segment openSegment(long id, int size) throws IOException {
+        Path path = directory.resolve("journal-%020d.log".formatted(id));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacity = Math.max(channel.size(), size);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        return new Segment(id, path, channel, buffer);
+    }
+
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(entry.payload().length + 256);
+
+        try(DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeLong(entry.timestamp());
+            output.writeUTF(entry.bindingName());
+            output.writeInt(entry.headers().size());
+            for(Map.Entry<String, String> header : entry.headers().entrySet()) {
+                output.writeUTF(header.getKey());
+                output.writeUTF(header.getValue());
+            }
+            output.writeInt(entry.payload().length);
+            output.write(entry.payload());
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(Segment segment, int offset) {
+        int length = segment.buffer.getInt(offset);
+        byte[] record = new byte[length];
+        segment.buffer.get(offset + RECORD_HEADER, record);
+
+        try(DataInputStream input = new DataInputStream(new ByteArrayInputStream(record))) {
+            long timestamp = input.readLong();
+            String bindingName = input.readUTF();
+            int headerCount = input.readInt();
+            Map<String, String> headers = new LinkedHashMap<>();
+            for(int i = 0; i < headerCount; i++) {
+                headers.put(input.readUTF(), input.readUTF());
+            }
+            byte[] payload = new byte[input.readInt()];
+            input.readFully(payload);
+
+            return new Entry(bindingName, headers, payload, timestamp, segment.id, offset + RECORD_HEADER + length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    record Entry(String bindingName, Map<String, String> headers, byte[] payload, long timestamp, long segmentId, int nextOffset) {
+
+        Entry(String bindingName, Map<String, String> headers, byte[] payload, long timestamp) {
+            this(bindingName, headers, payload, timestamp, 0L, 0);
+        }
+    }
+
+    private static class Segment {
+
+        private final long id;
+
+        private final Path path;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private volatile int writePosition;
+
+        private volatile int forcedPosition;
+
+        private volatile boolean sealed;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private int capacity() {
+            return buffer.capacity();
+        }
+
+        private void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                log.warn("Unable to delete journal segment {}: {}", path, ex.getMessage());
+            }
+        }
+    }
+}
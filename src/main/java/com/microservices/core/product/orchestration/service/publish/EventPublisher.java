@@ -0,0 +1,18 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface EventPublisher {
+
+    // Qualifies the publisher that sends to the broker, as opposed to the journal in front of it.
+    String BROKER = "brokerEventPublisher";
+
+    // Completes once the message has been handed over as far as the implementation guarantees.
+    Mono<Void> send(String bindingName, Message<?> message);
+
+    // The messages are sent in the given order.
+    Mono<Void> sendAll(String bindingName, List<Message<?>> messages);
+}
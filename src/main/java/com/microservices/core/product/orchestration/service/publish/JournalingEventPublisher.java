@@ -0,0 +1,275 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Appends the events to a local journal and completes as soon as they are written, a drainer thread then forwards them
+// in order to the broker publisher. The appends run on their own thread, so that request threads never wait for the disk.
+// Events that could not be forwarded before a shutdown are sent after the restart, so consumers may receive an event twice.
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "app.journal.enabled", havingValue = "true")
+public class JournalingEventPublisher implements EventPublisher {
+
+    @Value("${app.journal.directory:journal}")
+    private String directory;
+
+    @Value("${app.journal.segmentSize:67108864}")
+    private Integer segmentSize;
+
+    @Value("${app.journal.maxSegments:16}")
+    private Integer maxSegments;
+
+    @Value("${app.journal.fsync:interval}")
+    private String fsync;
+
+    @Value("${app.journal.fsyncInterval:PT0.1S}")
+    private Duration fsyncInterval;
+
+    @Value("${app.journal.drainBatchSize:100}")
+    private Integer drainBatchSize;
+
+    @Value("${app.journal.sendTimeout:PT10S}")
+    private Duration sendTimeout;
+
+    @Value("${app.journal.minBackoff:PT0.1S}")
+    private Duration minBackoff;
+
+    @Value("${app.journal.maxBackoff:PT10S}")
+    private Duration maxBackoff;
+
+    @Value("${app.journal.checkpointInterval:PT1S}")
+    private Duration checkpointInterval;
+
+    @Autowired
+    @Qualifier(EventPublisher.BROKER)
+    private EventPublisher brokerEventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private EventJournal eventJournal;
+
+    private Thread drainer;
+
+    private Scheduler appendScheduler;
+
+    private Scheduler fsyncScheduler;
+
+    private Timer appendTimer;
+
+    private volatile boolean running;
+
+    private volatile long oldestUndrainedTimestamp;
+
+    @PostConstruct
+    void init() throws IOException {
+        EventJournal.FsyncPolicy fsyncPolicy = EventJournal.FsyncPolicy.valueOf(fsync.toUpperCase(Locale.ROOT));
+        eventJournal = new EventJournal(Path.of(directory), segmentSize, maxSegments, fsyncPolicy);
+
+        appendTimer = Timer.builder("orchestration.journal.append")
+                .description("Time to append events to the journal")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        Gauge.builder("orchestration.journal.depth", eventJournal, EventJournal::getDepth)
+                .description("Journaled events not yet acknowledged by the broker")
+                .register(meterRegistry);
+
+        Gauge.builder("orchestration.journal.lag", this, JournalingEventPublisher::getLagSeconds)
+                .description("Age of the oldest journaled event not yet acknowledged by the broker")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        Gauge.builder("orchestration.journal.segments", eventJournal, EventJournal::getSegmentCount)
+                .description("Journal segment files on disk")
+                .register(meterRegistry);
+
+        appendScheduler = Schedulers.newSingle("journal-append");
+
+        if(fsyncPolicy == EventJournal.FsyncPolicy.INTERVAL) {
+            fsyncScheduler = Schedulers.newSingle("journal-fsync");
+            fsyncScheduler.schedulePeriodically(eventJournal::force, fsyncInterval.toMillis(), fsyncInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        running = true;
+        drainer = new Thread(this::drain, "journal-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    void destroy() throws IOException, InterruptedException {
+        running = false;
+        LockSupport.unpark(drainer);
+        drainer.join(sendTimeout.plusSeconds(1).toMillis());
+
+        if(Objects.nonNull(fsyncScheduler)) {
+            fsyncScheduler.dispose();
+        }
+        appendScheduler.dispose();
+        eventJournal.close();
+    }
+
+    @Override
+    public Mono<Void> send(String bindingName, Message<?> message) {
+        return sendAll(bindingName, List.of(message));
+    }
+
+    @Override
+    public Mono<Void> sendAll(String bindingName, List<Message<?>> messages) {
+        return Mono.fromRunnable(() -> {
+            List<EventJournal.Entry> entries = new ArrayList<>(messages.size());
+            for(Message<?> message : messages) {
+                entries.add(toEntry(bindingName, message));
+            }
+
+            appendTimer.record(() -> {
+                try {
+                    eventJournal.append(entries);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+
+            LockSupport.unpark(drainer);
+        }).subscribeOn(appendScheduler).then();
+    }
+
+    private void drain() {
+        Duration backoff = minBackoff;
+        long lastCheckpoint = System.nanoTime();
+
+        while(running) {
+            List<EventJournal.Entry> entries = eventJournal.read(drainBatchSize);
+
+            if(entries.isEmpty()) {
+                oldestUndrainedTimestamp = 0L;
+                lastCheckpoint = checkpointIfDue(lastCheckpoint);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                continue;
+            }
+
+            oldestUndrainedTimestamp = entries.get(0).timestamp();
+
+            try {
+                // Consecutive events for the same binding are sent together, the order of the journal is kept.
+                int start = 0;
+                while(start < entries.size()) {
+                    String bindingName = entries.get(start).bindingName();
+                    int end = start + 1;
+                    while(end < entries.size() && entries.get(end).bindingName().equals(bindingName)) {
+                        end++;
+                    }
+
+                    brokerEventPublisher.sendAll(bindingName, entries.subList(start, end).stream().<Message<?>>map(this::toMessage).toList())
+                            .block(sendTimeout);
+                    eventJournal.acknowledge(entries.get(end - 1), end - start);
+                    start = end;
+                }
+                backoff = minBackoff;
+            } catch (RuntimeException ex) {
+                log.warn("Forwarding journaled events failed, retrying in {}: {}", backoff, ex.getMessage());
+                LockSupport.parkNanos(backoff.toNanos());
+                backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+            }
+
+            lastCheckpoint = checkpointIfDue(lastCheckpoint);
+        }
+    }
+
+    private long checkpointIfDue(long lastCheckpoint) {
+        if(System.nanoTime() - lastCheckpoint < checkpointInterval.toNanos()) {
+            return lastCheckpoint;
+        }
+
+        try {
+            eventJournal.writeCheckpoint();
+        } catch (IOException ex) {
+            log.warn("Unable to write the journal checkpoint: {}", ex.getMessage());
+        }
+        return System.nanoTime();
+    }
+
+    private double getLagSeconds() {
+        long timestamp = oldestUndrainedTimestamp;
+        return timestamp == 0L ? 0.0 : (System.currentTimeMillis() - timestamp) / 1000.0;
+    }
+
+    // Header values keep their type, the partition key in particular has to hash the same way after a replay.
+    private EventJournal.Entry toEntry(String bindingName, Message<?> message) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        message.getHeaders().forEach((name, value) -> {
+            if(!MessageHeaders.ID.equals(name) && !MessageHeaders.TIMESTAMP.equals(name) && Objects.nonNull(value)) {
+                headers.put(name, encodeHeader(value));
+            }
+        });
+
+        try {
+            byte[] payload = message.getPayload() instanceof byte[] bytes ? bytes : objectMapper.writeValueAsBytes(message.getPayload());
+            return new EventJournal.Entry(bindingName, headers, payload, System.currentTimeMillis());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Unable to serialize the event for %s".formatted(bindingName), ex);
+        }
+    }
+
+    private Message<byte[]> toMessage(EventJournal.Entry entry) {
+        MessageBuilder<byte[]> builder = MessageBuilder.withPayload(entry.payload());
+        entry.headers().forEach((name, value) -> builder.setHeader(name, decodeHeader(value)));
+        return builder.setHeaderIfAbsent(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE).build();
+    }
+
+    private static String encodeHeader(Object value) {
+        if(value instanceof Long) {
+            return "L" + value;
+        }
+        if(value instanceof Integer) {
+            return "I" + value;
+        }
+        return "S" + value;
+    }
+
+    private static Object decodeHeader(String value) {
+        return switch (value.charAt(0)) {
+            case 'L' -> Long.parseLong(value.substring(1));
+            case 'I' -> Integer.parseInt(value.substring(1));
+            default -> value.substring(1);
+        };
+    }
+}
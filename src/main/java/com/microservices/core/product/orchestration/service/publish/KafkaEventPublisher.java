@@ -0,0 +1,319 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.util.ProductOrchestrationUtil;
+import com.microservices.core.product.orchestration.service.util.TopicConstants;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.binder.kafka.BinderHeaderMapper;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaderMapper;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Sends straight to the Kafka producer instead of going through StreamBridge on the publish scheduler. The returned Mono
+// completes when the broker has acknowledged the records. At most maxInFlight sends run at the same time, further sends
+// wait in a FIFO queue of at most maxPending entries, beyond which they are rejected. The partitions and headers are the
+// ones the binder would use for the same binding, so switching the publish mode keeps the order of the events of a key.
+@Slf4j
+@Component
+@Qualifier(EventPublisher.BROKER)
+@ConditionalOnProperty(name = "app.publish.mode", havingValue = "reactive")
+public class KafkaEventPublisher implements EventPublisher {
+
+    @Value("${app.publish.kafka.brokers:${spring.cloud.stream.kafka.binder.brokers:localhost}}")
+    private String brokers;
+
+    @Value("${spring.cloud.stream.kafka.binder.defaultBrokerPort:9092}")
+    private Integer defaultBrokerPort;
+
+    @Value("${app.publish.maxInFlight:256}")
+    private Integer maxInFlight;
+
+    @Value("${app.publish.maxPending:10000}")
+    private Integer maxPending;
+
+    // Bounds the time the producer may block the calling thread, for instance while fetching the metadata of a topic.
+    @Value("${app.publish.kafka.maxBlock:PT1S}")
+    private Duration maxBlock;
+
+    @Value("${app.publish.batch.compression:none}")
+    private String compression;
+
+    @Value("${app.publish.kafka.sendThreads:4}")
+    private Integer sendThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BindingServiceProperties bindingServiceProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BeanFactory beanFactory;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Queue<PendingSend> pendingSends = new ConcurrentLinkedQueue<>();
+
+    private final Map<String, BindingPartitioner> partitioners = new ConcurrentHashMap<>();
+
+    private final KafkaHeaderMapper headerMapper = new BinderHeaderMapper();
+
+    private DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private PublishMetrics publishMetrics;
+
+    // Hands the pending sends to the send workers in FIFO order and runs the continuations of the acknowledgements, never on
+    // an event loop or the producer I/O thread. It never blocks.
+    private Scheduler sendScheduler;
+
+    // KafkaTemplate.send may block for up to maxBlock, on the first metadata fetch of a topic or on a full buffer. The records
+    // of a key always go to the same worker, so they reach the producer in order while other keys are sent in parallel.
+    private Scheduler sendWorkerScheduler;
+
+    private Scheduler.Worker[] sendWorkers;
+
+    private EvaluationContext evaluationContext;
+
+    @PostConstruct
+    void init() {
+        Map<String, Object> producerConfig = new HashMap<>();
+        producerConfig.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, getBootstrapServers());
+        producerConfig.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerConfig.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerConfig.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerConfig.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerConfig.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, (int) maxBlock.toMillis());
+        producerConfig.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression);
+
+        producerFactory = new DefaultKafkaProducerFactory<>(producerConfig);
+        kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        publishMetrics = new PublishMetrics(meterRegistry, "reactive");
+        sendScheduler = Schedulers.newSingle("kafka-publish");
+        sendWorkerScheduler = Schedulers.newParallel("kafka-send", sendThreads);
+        sendWorkers = new Scheduler.Worker[sendThreads];
+        for(int i = 0; i < sendThreads; i++) {
+            sendWorkers[i] = sendWorkerScheduler.createWorker();
+        }
+        evaluationContext = ExpressionUtils.createStandardEvaluationContext(beanFactory);
+
+        Gauge.builder("orchestration.publish.in.flight", inFlight, AtomicInteger::get)
+                .description("Sends waiting for the broker acknowledgement")
+                .register(meterRegistry);
+
+        Gauge.builder("orchestration.publish.pending", pending, AtomicInteger::get)
+                .description("Sends waiting for an in-flight slot")
+                .register(meterRegistry);
+
+        // Fetching the topic metadata ahead of the first send, the first sends wait for it on the send workers.
+        Mono.fromRunnable(() -> List.of(TopicConstants.PRODUCT_TOPIC, TopicConstants.REVIEW_TOPIC, TopicConstants.RECOMMENDATION_TOPIC)
+                        .forEach(bindingName -> kafkaTemplate.partitionsFor(getDestination(bindingName))))
+                .subscribeOn(sendWorkerScheduler)
+                .subscribe(null, ex -> log.warn("Unable to fetch the topic metadata: {}", ex.getMessage()));
+    }
+
+    @PreDestroy
+    void destroy() {
+        sendScheduler.dispose();
+        sendWorkerScheduler.dispose();
+        producerFactory.destroy();
+    }
+
+    @Override
+    public Mono<Void> send(String bindingName, Message<?> message) {
+        return sendAll(bindingName, List.of(message));
+    }
+
+    @Override
+    public Mono<Void> sendAll(String bindingName, List<Message<?>> messages) {
+        return Mono.create(sink -> {
+            BindingPartitioner partitioner = getPartitioner(bindingName);
+            List<PendingRecord> records = new ArrayList<>(messages.size());
+
+            try {
+                for(Message<?> message : messages) {
+                    records.add(new PendingRecord(buildRecord(getDestination(bindingName), message), partitioner.extractKey(message)));
+                }
+            } catch (JsonProcessingException | RuntimeException ex) {
+                sink.error(ex);
+                return;
+            }
+
+            if(pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                publishMetrics.recordRejected();
+                sink.error(new RejectedExecutionException("Too many pending sends to %s".formatted(bindingName)));
+                return;
+            }
+
+            PendingSend pendingSend = new PendingSend(bindingName, partitioner, records, sink, System.nanoTime());
+            pendingSends.offer(pendingSend);
+
+            // A send still waiting for an in-flight slot is dropped when the subscriber cancels, one handed to the producer is not.
+            sink.onCancel(() -> {
+                if(pendingSends.remove(pendingSend)) {
+                    pending.decrementAndGet();
+                }
+            });
+
+            sendScheduler.schedule(this::drain);
+        });
+    }
+
+    private void drain() {
+        while(!pendingSends.isEmpty()) {
+            int current = inFlight.get();
+
+            if(current >= maxInFlight) {
+                return;
+            }
+
+            if(!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            PendingSend pendingSend = pendingSends.poll();
+
+            if(Objects.isNull(pendingSend)) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+
+            pending.decrementAndGet();
+            start(pendingSend);
+        }
+    }
+
+    private void start(PendingSend pendingSend) {
+        log.debug("Sending {} records to {}", pendingSend.records().size(), pendingSend.bindingName());
+
+        CompletableFuture<?> acknowledged;
+
+        try {
+            // The producer keeps the records of one partition in send order.
+            acknowledged = CompletableFuture.allOf(pendingSend.records().stream()
+                    .map(pendingRecord -> CompletableFuture.supplyAsync(() -> send(pendingRecord, pendingSend.partitioner()), getSendWorker(pendingRecord)::schedule)
+                            .thenCompose(Function.identity()))
+                    .toArray(CompletableFuture[]::new));
+        } catch (RuntimeException ex) {
+            acknowledged = CompletableFuture.failedFuture(ex);
+        }
+
+        acknowledged.whenComplete((result, ex) -> sendScheduler.schedule(() -> {
+            inFlight.decrementAndGet();
+            publishMetrics.recordSend(pendingSend.bindingName(), pendingSend.startNanos(), ex);
+
+            if(Objects.isNull(ex)) {
+                pendingSend.sink().success();
+            } else {
+                log.warn("Sending to {} failed: {}", pendingSend.bindingName(), ex.getMessage());
+                pendingSend.sink().error(ex);
+            }
+
+            drain();
+        }));
+    }
+
+    // Runs on a send worker, the partition count of the topic comes from the producer metadata, which send fetches anyway.
+    private CompletableFuture<SendResult<String, byte[]>> send(PendingRecord pendingRecord, BindingPartitioner partitioner) {
+        ProducerRecord<String, byte[]> record = pendingRecord.record();
+
+        if(partitioner.isPartitioned()) {
+            int partition = partitioner.selectPartition(pendingRecord.partitionKey(), kafkaTemplate.partitionsFor(record.topic()).size());
+            record = new ProducerRecord<>(record.topic(), partition, record.key(), record.value(), record.headers());
+        }
+
+        return kafkaTemplate.send(record);
+    }
+
+    private Scheduler.Worker getSendWorker(PendingRecord pendingRecord) {
+        Object key = Objects.nonNull(pendingRecord.partitionKey()) ? pendingRecord.partitionKey() : pendingRecord.record().key();
+        return sendWorkers[Math.floorMod(Objects.hashCode(key), sendWorkers.length)];
+    }
+
+    private BindingPartitioner getPartitioner(String bindingName) {
+        return partitioners.computeIfAbsent(bindingName,
+                name -> new BindingPartitioner(bindingServiceProperties.getProducerProperties(name), evaluationContext, beanFactory));
+    }
+
+    private ProducerRecord<String, byte[]> buildRecord(String topic, Message<?> message) throws JsonProcessingException {
+        Object partitionKey = message.getHeaders().get(ProductOrchestrationUtil.PARTITION_KEY_HEADER);
+
+        // Payloads replayed from the journal are already serialized.
+        byte[] value = message.getPayload() instanceof byte[] bytes ? bytes : objectMapper.writeValueAsBytes(message.getPayload());
+
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, Objects.isNull(partitionKey) ? null : partitionKey.toString(), value);
+
+        // The binder mapper leaves out the id and timestamp headers and encodes the others as the binder does.
+        Map<String, Object> headers = new HashMap<>(message.getHeaders());
+        headers.putIfAbsent(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON_VALUE);
+        headerMapper.fromHeaders(new MessageHeaders(headers), record.headers());
+
+        return record;
+    }
+
+    private String getDestination(String bindingName) {
+        return bindingServiceProperties.getBindingDestination(bindingName);
+    }
+
+    private String getBootstrapServers() {
+        return Arrays.stream(brokers.split(","))
+                .map(String::trim)
+                .map(broker -> broker.contains(":") ? broker : broker + ":" + defaultBrokerPort)
+                .collect(Collectors.joining(","));
+    }
+
+    private record PendingSend(String bindingName, BindingPartitioner partitioner, List<PendingRecord> records, MonoSink<Void> sink, long startNanos) {
+    }
+
+    private record PendingRecord(ProducerRecord<String, byte[]> record, Object partitionKey) {
+    }
+}
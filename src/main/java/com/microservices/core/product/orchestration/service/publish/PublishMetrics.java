@@ -0,0 +1,44 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+class PublishMetrics {
+
+    static final String PUBLISH_TIMER = "orchestration.publish";
+    static final String PUBLISH_REJECTED_COUNTER = "orchestration.publish.rejected";
+
+    private final MeterRegistry meterRegistry;
+
+    private final String mode;
+
+    private final Counter rejectedCounter;
+
+    PublishMetrics(MeterRegistry meterRegistry, String mode) {
+        this.meterRegistry = meterRegistry;
+        this.mode = mode;
+        this.rejectedCounter = Counter.builder(PUBLISH_REJECTED_COUNTER)
+                .description("Events rejected because too many sends were already waiting")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    void recordSend(String bindingName, long startNanos, Throwable error) {
+        Timer.builder(PUBLISH_TIMER)
+                .description("Time from publishing an event until the publisher completed it")
+                .tag("binding", bindingName)
+                .tag("mode", mode)
+                .tag("outcome", Objects.isNull(error) ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordRejected() {
+        rejectedCounter.increment();
+    }
+}
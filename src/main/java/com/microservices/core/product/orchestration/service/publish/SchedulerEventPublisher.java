@@ -0,0 +1,67 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+// StreamBridge.send blocks, so the sends run on the publish scheduler. The returned Mono completes once the binder
+// has accepted the messages, which is before the broker has acknowledged them.
+@Slf4j
+@Component
+@Qualifier(EventPublisher.BROKER)
+@ConditionalOnProperty(name = "app.publish.mode", havingValue = "scheduler", matchIfMissing = true)
+public class SchedulerEventPublisher implements EventPublisher {
+
+    @Autowired
+    private StreamBridge streamBridge;
+
+    @Autowired
+    @Qualifier("publishEventScheduler")
+    private Scheduler publishEventScheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private PublishMetrics publishMetrics;
+
+    @PostConstruct
+    void init() {
+        publishMetrics = new PublishMetrics(meterRegistry, "scheduler");
+    }
+
+    @Override
+    public Mono<Void> send(String bindingName, Message<?> message) {
+        return sendAll(bindingName, List.of(message));
+    }
+
+    @Override
+    public Mono<Void> sendAll(String bindingName, List<Message<?>> messages) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+
+            return Mono.<Void>fromRunnable(() -> messages.forEach(message -> {
+                        log.debug("Sending message to {}", bindingName);
+                        streamBridge.send(bindingName, message);
+                    }))
+                    .subscribeOn(publishEventScheduler)
+                    .doOnSuccess(ignored -> publishMetrics.recordSend(bindingName, startNanos, null))
+                    .doOnError(ex -> {
+                        if(ex instanceof RejectedExecutionException) {
+                            publishMetrics.recordRejected();
+                        }
+                        publishMetrics.recordSend(bindingName, startNanos, ex);
+                    });
+        });
+    }
+}
@@ -1,15 +1,31 @@
 package com.microservices.core.product.orchestration.service.remote;
 
 import lombok.extern.slf4j.Slf4j;
+import com.microservices.core.product.orchestration.service.cache.AggregateRequestCoalescer;
+import com.microservices.core.product.orchestration.service.cache.LastKnownGoodStore;
+import com.microservices.core.product.orchestration.service.cache.ProductAggregateCache;
+import com.microservices.core.product.orchestration.service.cache.SerializedAggregate;
+import com.microservices.core.product.orchestration.service.dto.AggregatePage;
+import com.microservices.core.product.orchestration.service.dto.AggregateSection;
+import com.microservices.core.product.orchestration.service.dto.BulkItemResultDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateChunkDTO;
 import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.PageInfoDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateResultDTO;
 import com.microservices.core.product.orchestration.service.dto.RecommendationSummaryDTO;
 import com.microservices.core.product.orchestration.service.dto.ReviewSummaryDTO;
 import com.microservices.core.product.orchestration.service.dto.ServiceAddressesDTO;
+import com.microservices.core.product.orchestration.service.dto.TaggedProductAggregate;
+import com.microservices.core.product.orchestration.service.metrics.OrchestrationMetrics;
+import com.microservices.core.product.orchestration.service.remote.dto.PageDTO;
 import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
 import com.microservices.core.product.orchestration.service.remote.dto.RecommendationDTO;
 import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import com.microservices.core.product.orchestration.service.view.ProductAggregateView;
+import com.microservices.core.util.exceptions.InvalidInputException;
 import com.microservices.core.util.http.ServiceUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextImpl;
@@ -19,17 +35,33 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 import java.net.URL;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 @Slf4j
 @Component
 public class IntegrationService {
 
+    private static final int GENERATION_STRIPES = 1024;
+
     @Autowired
     private ServiceUtil serviceUtil;
 
@@ -42,8 +74,51 @@ public class IntegrationService {
     @Autowired
     private ReviewService reviewService;
 
+    @Autowired
+    private ProductAggregateCache productAggregateCache;
+
+    @Autowired
+    private AggregateRequestCoalescer aggregateRequestCoalescer;
+
+    @Autowired
+    private ProductAggregateView productAggregateView;
+
+    @Autowired
+    private LastKnownGoodStore lastKnownGoodStore;
+
+    @Autowired
+    private OrchestrationMetrics orchestrationMetrics;
+
+    @Value("${app.publish.batch.enabled:false}")
+    private boolean batchPublishEnabled;
+
+    @Value("${app.batch.concurrency:16}")
+    private Integer batchConcurrency;
+
+    @Value("${app.bulk.concurrency:32}")
+    private Integer bulkConcurrency;
+
+    @Value("${app.bulk.delete.concurrency:16}")
+    private Integer bulkDeleteConcurrency;
+
+    @Value("${app.bulk.delete.batchSize:500}")
+    private Integer bulkDeleteBatchSize;
+
+    @Value("${app.bulk.delete.maxBatchWait:PT0.1S}")
+    private Duration bulkDeleteMaxBatchWait;
+
+    @Value("${app.aggregate.page.defaultLimit:1000}")
+    private Integer defaultPageLimit;
+
+    @Value("${app.aggregate.page.maxLimit:1000}")
+    private Integer maxPageLimit;
+
     private final SecurityContext securityContext = new SecurityContextImpl();
 
+    // Invalidation generations, striped by product ID so that they stay bounded without ever being evicted while a read is in
+    // flight. Products sharing a stripe only skip the odd cache fill.
+    private final AtomicLongArray invalidationGenerations = new AtomicLongArray(GENERATION_STRIPES);
+
     public Flux<ProductAggregateDTO> createProductAggregate(ProductAggregateDTO productAggregateDTO) {
         try {
 
@@ -70,8 +145,9 @@ public class IntegrationService {
 
             // This will execute the Mono and Flux operations and will wait for all the operations to complete to build the response.
             return Flux.zip(getLogAuthorizationInfoMono(), createdProduct, createdRecommendations, createdReviews)
-                    .map (tuple -> buildProductAggregate(tuple.getT1(), tuple.getT2(), tuple.getT4(), tuple.getT3()))
+                    .map (tuple -> buildProductAggregate(tuple.getT2().getProductId(), tuple.getT2(), tuple.getT4(), tuple.getT3(), AggregateSection.ALL, null, null, List.of()))
                     .doOnError(ex -> log.warn("Product detail creation failed: {}", ex.getMessage()))
+                    .doFinally(signal -> invalidate(productAggregateDTO.productId()))
                     .log(log.getName(), Level.FINE);
         }catch (Exception e) {
             //Remove data that were persisted
@@ -95,21 +171,30 @@ public class IntegrationService {
             if(!CollectionUtils.isEmpty(productAggregateDTO.reviewSummaries())) {
                 List<ReviewDTO> reviewDTOS = reviewService.buildReviews(productAggregateDTO.reviewSummaries(), productDTO);
 
-                reviewDTOS.forEach(reviewDTO -> {
-                    monos.add(reviewService.createProductReviewAsync(reviewDTO));
-                });
+                if(batchPublishEnabled) {
+                    monos.add(reviewService.createProductReviewsAsync(productDTO.getProductId(), reviewDTOS));
+                } else {
+                    reviewDTOS.forEach(reviewDTO -> {
+                        monos.add(reviewService.createProductReviewAsync(reviewDTO));
+                    });
+                }
             }
 
             if(!CollectionUtils.isEmpty(productAggregateDTO.recommendationSummaries())) {
                 List<RecommendationDTO> recommendationDTOS = recommendationService.buildRecommendations(productAggregateDTO.recommendationSummaries(), productDTO);
 
-                recommendationDTOS.forEach(recommendationDTO -> {
-                    monos.add(recommendationService.createProductRecommendationAsync(recommendationDTO));
-                });
+                if(batchPublishEnabled) {
+                    monos.add(recommendationService.createProductRecommendationsAsync(productDTO.getProductId(), recommendationDTOS));
+                } else {
+                    recommendationDTOS.forEach(recommendationDTO -> {
+                        monos.add(recommendationService.createProductRecommendationAsync(recommendationDTO));
+                    });
+                }
             }
 
             return Mono.zip(r -> "", monos.toArray(new Mono[0]))
                     .doOnError(ex -> log.warn("Creation of product failed: {}", ex.toString()))
+                    .doFinally(signal -> invalidate(productAggregateDTO.productId()))
                     .then();
         }catch (Exception e) {
             //Remove data that were persisted
@@ -120,6 +205,64 @@ public class IntegrationService {
         }
     }
 
+    // Items are created with bounded concurrency, which also bounds how far ahead the request body is read. Results are
+    // emitted in completion order, the index tells the position of the item in the request.
+    public Flux<BulkItemResultDTO> createProductAggregates(Flux<ProductAggregateDTO> productAggregateDTOS, boolean async) {
+        return productAggregateDTOS
+                .index()
+                .flatMapDelayError(item -> createProductAggregate(item.getT1(), item.getT2(), async), bulkConcurrency, 1)
+                // A line that cannot be read ends the request, the items read before it are completed first.
+                .onErrorResume(this::buildBulkReadFailure)
+                .log(log.getName(), Level.FINE);
+    }
+
+    private Mono<BulkItemResultDTO> createProductAggregate(long index, ProductAggregateDTO productAggregateDTO, boolean async) {
+        Long productId = productAggregateDTO.productId();
+
+        if(Objects.isNull(productId) || productId < 1) {
+            return Mono.just(buildBulkItemResult(index, productId, BulkItemResultDTO.Status.FAILED, "Invalid product ID: %s".formatted(productId)));
+        }
+
+        Mono<Void> creation = async ? Mono.defer(() -> createProductAggregateAsync(productAggregateDTO)) : createProductAggregateItem(productAggregateDTO);
+
+        return creation
+                .thenReturn(buildBulkItemResult(index, productId, async ? BulkItemResultDTO.Status.ACCEPTED : BulkItemResultDTO.Status.CREATED, null))
+                .onErrorResume(ex -> Mono.just(buildBulkItemResult(index, productId, BulkItemResultDTO.Status.FAILED, ex.getMessage())));
+    }
+
+    // createProductAggregate completes empty when the aggregate has no reviews or no recommendations, and when it cannot be
+    // built, so an empty result tells nothing about the item. Here every part either completes or fails.
+    private Mono<Void> createProductAggregateItem(ProductAggregateDTO productAggregateDTO) {
+        return Mono.defer(() -> {
+                    ProductDTO productDTO = productService.buildProduct(productAggregateDTO);
+                    List<Mono<?>> creations = new ArrayList<>();
+
+                    creations.add(productService.createProduct(productDTO)
+                            .switchIfEmpty(Mono.error(() -> new IllegalStateException("No product created for ID: %s".formatted(productDTO.getProductId())))));
+
+                    if(!CollectionUtils.isEmpty(productAggregateDTO.recommendationSummaries())) {
+                        creations.add(recommendationService.createProductRecommendations(recommendationService.buildRecommendations(productAggregateDTO.recommendationSummaries(), productDTO)).then());
+                    }
+
+                    if(!CollectionUtils.isEmpty(productAggregateDTO.reviewSummaries())) {
+                        creations.add(reviewService.createProductReviews(reviewService.buildReviews(productAggregateDTO.reviewSummaries(), productDTO)).then());
+                    }
+
+                    return Mono.when(creations);
+                })
+                .doOnError(ex -> log.warn("Creation of product {} failed: {}", productAggregateDTO.productId(), ex.getMessage()))
+                .doFinally(signal -> invalidate(productAggregateDTO.productId()));
+    }
+
+    private BulkItemResultDTO buildBulkItemResult(long index, Long productId, BulkItemResultDTO.Status status, String error) {
+        return BulkItemResultDTO.builder()
+                .index(index)
+                .productId(productId)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
     public Mono<Void> deleteProductAggregate(Long productId) {
         try {
             return Mono.zip(execution -> "",
@@ -128,6 +271,7 @@ public class IntegrationService {
                     recommendationService.deleteProductRecommendations(productId),
                     reviewService.deleteProductReview(productId))
                     .doOnError(ex -> log.warn("Product deletion failed: {}", ex.getMessage()))
+                    .doFinally(signal -> invalidate(productId))
                     .log(log.getName(), Level.FINE).then();
         }catch(RuntimeException ex) {
             throw ex;
@@ -141,41 +285,522 @@ public class IntegrationService {
                 recommendationService.deleteProductRecommendationsAsync(productId),
                 reviewService.deleteProductReviewAsync(productId))
                 .doOnError(ex -> log.warn("Deletion of product failed: {}", ex.getMessage()))
+                .doFinally(signal -> invalidate(productId))
                 .log(log.getName(), Level.FINE).then();
     }
 
+    public Flux<BulkItemResultDTO> deleteProductAggregates(Flux<Long> productIds) {
+        return getLogAuthorizationInfoMono().thenMany(productIds
+                .index()
+                .flatMapDelayError(item -> deleteProductAggregate(item.getT1(), item.getT2()), bulkDeleteConcurrency, 1)
+                .onErrorResume(this::buildBulkReadFailure))
+                .log(log.getName(), Level.FINE);
+    }
+
+    // The delete events of a batch are sent with one call per topic. A batch is sent when full or after the max batch wait,
+    // so that a slowly written request body is not held back. A failed batch fails all its product IDs, the events that
+    // did reach a topic are harmless to send again since deleting is idempotent.
+    public Flux<BulkItemResultDTO> deleteProductAggregatesAsync(Flux<Long> productIds) {
+        return getLogAuthorizationInfoMono().thenMany(productIds
+                .index()
+                .bufferTimeout(bulkDeleteBatchSize, bulkDeleteMaxBatchWait, true)
+                .concatMap(this::deleteProductAggregatesBatchAsync)
+                .onErrorResume(this::buildBulkReadFailure))
+                .log(log.getName(), Level.FINE);
+    }
+
+    private Mono<BulkItemResultDTO> deleteProductAggregate(long index, Long productId) {
+        if(Objects.isNull(productId) || productId < 1) {
+            return Mono.just(buildBulkItemResult(index, productId, BulkItemResultDTO.Status.FAILED, "Invalid product ID: %s".formatted(productId)));
+        }
+
+        return Mono.when(productService.deleteProduct(productId),
+                        recommendationService.deleteProductRecommendations(productId),
+                        reviewService.deleteProductReview(productId))
+                .doFinally(signal -> invalidate(productId))
+                .thenReturn(buildBulkItemResult(index, productId, BulkItemResultDTO.Status.DELETED, null))
+                .onErrorResume(ex -> Mono.just(buildBulkItemResult(index, productId, BulkItemResultDTO.Status.FAILED, ex.getMessage())));
+    }
+
+    private Flux<BulkItemResultDTO> deleteProductAggregatesBatchAsync(List<Tuple2<Long, Long>> items) {
+        List<BulkItemResultDTO> invalidResults = new ArrayList<>();
+        List<Tuple2<Long, Long>> validItems = new ArrayList<>(items.size());
+
+        for(Tuple2<Long, Long> item : items) {
+            Long productId = item.getT2();
+
+            if(Objects.isNull(productId) || productId < 1) {
+                invalidResults.add(buildBulkItemResult(item.getT1(), productId, BulkItemResultDTO.Status.FAILED, "Invalid product ID: %s".formatted(productId)));
+            } else {
+                validItems.add(item);
+            }
+        }
+
+        if(validItems.isEmpty()) {
+            return Flux.fromIterable(invalidResults);
+        }
+
+        List<Long> productIds = validItems.stream().map(Tuple2::getT2).toList();
+
+        Mono<List<BulkItemResultDTO>> results = Mono.when(productService.deleteProductsAsync(productIds),
+                        recommendationService.deleteRecommendationsAsync(productIds),
+                        reviewService.deleteReviewsAsync(productIds))
+                .doFinally(signal -> productIds.forEach(this::invalidate))
+                .then(Mono.fromSupplier(() -> buildBulkItemResults(validItems, BulkItemResultDTO.Status.ACCEPTED, null)))
+                .onErrorResume(ex -> {
+                    log.warn("Deletion of {} products failed: {}", productIds.size(), ex.getMessage());
+                    return Mono.just(buildBulkItemResults(validItems, BulkItemResultDTO.Status.FAILED, ex.getMessage()));
+                });
+
+        return Flux.fromIterable(invalidResults).concatWith(results.flatMapIterable(Function.identity()));
+    }
+
+    private List<BulkItemResultDTO> buildBulkItemResults(List<Tuple2<Long, Long>> items, BulkItemResultDTO.Status status, String error) {
+        return items.stream().map(item -> buildBulkItemResult(item.getT1(), item.getT2(), status, error)).toList();
+    }
+
+    private Mono<BulkItemResultDTO> buildBulkReadFailure(Throwable ex) {
+        log.warn("Bulk request stopped: {}", ex.getMessage());
+        return Mono.just(BulkItemResultDTO.builder()
+                .status(BulkItemResultDTO.Status.FAILED)
+                .error("Unable to read the request: %s".formatted(ex.getMessage()))
+                .build());
+    }
+
+    // The generation is bumped first, so a read that checked it before still has its entry removed below.
+    private void invalidate(Long productId) {
+        invalidationGenerations.incrementAndGet(getGenerationStripe(productId));
+        productAggregateCache.invalidate(productId);
+        productAggregateView.invalidate(productId);
+        lastKnownGoodStore.invalidate(productId);
+    }
+
+    private long getGeneration(Long productId) {
+        return invalidationGenerations.get(getGenerationStripe(productId));
+    }
+
+    private static int getGenerationStripe(Long productId) {
+        return Math.floorMod(productId.hashCode(), GENERATION_STRIPES);
+    }
+
+    // A read that started before an invalidation may have seen the data from before the write, it is not cached. The check is
+    // repeated after the put for an invalidation that ran in between.
+    private void storeIfCurrent(Long productId, long generation, Runnable store) {
+        if(getGeneration(productId) != generation) {
+            log.debug("Product aggregate for ID: {} invalidated while it was read, not caching it", productId);
+            return;
+        }
+
+        store.run();
+
+        if(getGeneration(productId) != generation) {
+            productAggregateCache.invalidate(productId);
+            productAggregateView.invalidate(productId);
+        }
+    }
+
     public Mono<ProductAggregateDTO> getProductAggregate(Long productId) {
+        return getProductAggregate(productId, AggregateSection.ALL);
+    }
+
+    public Mono<ProductAggregateDTO> getProductAggregate(Long productId, Set<AggregateSection> sections) {
+        return getProductAggregate(productId, sections, getDefaultAggregatePage());
+    }
+
+    public Mono<ProductAggregateDTO> getProductAggregate(Long productId, Set<AggregateSection> sections, AggregatePage page) {
+        return getTaggedProductAggregate(productId, sections, page).map(TaggedProductAggregate::aggregate);
+    }
+
+    // The content hash of a cached aggregate is the one stored with it, other aggregates are hashed once when built.
+    public Mono<TaggedProductAggregate> getTaggedProductAggregate(Long productId, Set<AggregateSection> sections, AggregatePage page) {
+        return orchestrationMetrics.timeAggregate("getProductAggregate", Mono.defer(() -> {
+            boolean defaultPage = getDefaultAggregatePage().equals(page);
+            TaggedProductAggregate cachedProductAggregate = defaultPage ? productAggregateCache.getTagged(productId) : null;
+
+            if(Objects.nonNull(cachedProductAggregate)) {
+                log.debug("Product aggregate cache hit for ID: {}", productId);
+                return getLogAuthorizationInfoMono().thenReturn(AggregateSection.isComplete(sections) ? cachedProductAggregate
+                        : TaggedProductAggregate.of(projectProductAggregate(cachedProductAggregate.aggregate(), sections)));
+            }
+
+            ProductAggregateView.Entry viewEntry = defaultPage ? productAggregateView.get(productId) : null;
+
+            if(Objects.nonNull(viewEntry)) {
+                log.debug("Product aggregate view hit for ID: {}", productId);
+                return getLogAuthorizationInfoMono().map(securityContext -> TaggedProductAggregate.of(projectProductAggregate(buildProductAggregate(productId, viewEntry, page), sections)));
+            }
+
+            // Only complete aggregates with the default page are cached, others are fetched on their own and only shared with identical requests.
+            if(defaultPage && AggregateSection.isComplete(sections)) {
+                return aggregateRequestCoalescer.coalesce(productId, () -> fetchProductAggregate(productId, AggregateSection.ALL, page, true));
+            }
+
+            return aggregateRequestCoalescer.coalesce(new AggregateKey(productId, sections, page), () -> fetchProductAggregate(productId, sections, page, false));
+        }));
+    }
+
+    // Returns the cached JSON of a complete aggregate with the default page, so that it is written to the response as is.
+    public SerializedAggregate getCachedProductAggregateJson(Long productId, Set<AggregateSection> sections, AggregatePage page) {
+        if(!AggregateSection.isComplete(sections) || !getDefaultAggregatePage().equals(page)) {
+            return null;
+        }
+        return productAggregateCache.getJson(productId);
+    }
+
+    public AggregatePage getAggregatePage(Integer offset, Integer limit) {
+        int pageOffset = Objects.isNull(offset) ? 0 : offset;
+        int pageLimit = Objects.isNull(limit) ? defaultPageLimit : limit;
+
+        if(pageOffset < 0) {
+            throw new InvalidInputException("Invalid offset: %s".formatted(offset));
+        }
+
+        if(pageLimit < 1 || pageLimit > maxPageLimit) {
+            throw new InvalidInputException("Invalid limit: %s, expected a value between 1 and %s".formatted(limit, maxPageLimit));
+        }
+
+        return new AggregatePage(pageOffset, pageLimit);
+    }
+
+    private AggregatePage getDefaultAggregatePage() {
+        return new AggregatePage(0, defaultPageLimit);
+    }
+
+    public Flux<ProductAggregateChunkDTO> getProductAggregateStream(Long productId, Set<AggregateSection> sections, AggregatePage page) {
+        return orchestrationMetrics.timeAggregate("getProductAggregateStream", Flux.defer(() -> {
+            ProductAggregateDTO cachedProductAggregate = getDefaultAggregatePage().equals(page) ? productAggregateCache.get(productId) : null;
+
+            if(Objects.nonNull(cachedProductAggregate)) {
+                log.debug("Product aggregate cache hit for ID: {}", productId);
+                return getLogAuthorizationInfoMono().thenMany(buildProductAggregateChunks(projectProductAggregate(cachedProductAggregate, sections), sections));
+            }
+
+            AtomicReference<String> productServiceAddress = new AtomicReference<>("");
+            AtomicReference<String> reviewServiceAddress = new AtomicReference<>("");
+            AtomicReference<String> recommendationServiceAddress = new AtomicReference<>("");
+            AtomicInteger reviewCount = new AtomicInteger();
+            AtomicInteger recommendationCount = new AtomicInteger();
+            List<String> staleWarnings = new CopyOnWriteArrayList<>();
+
+            Mono<ProductAggregateChunkDTO> product = getLogAuthorizationInfoMono().then(Mono.empty());
+            Flux<ProductAggregateChunkDTO> reviews = Flux.empty();
+            Flux<ProductAggregateChunkDTO> recommendations = Flux.empty();
+
+            if(sections.contains(AggregateSection.PRODUCT)) {
+                product = getLogAuthorizationInfoMono()
+                        .then(getProduct(productId, staleWarnings, new AtomicBoolean(false)))
+                        .doOnNext(productDTO -> productServiceAddress.set(productDTO.getServiceAddress()))
+                        .map(productDTO -> ProductAggregateChunkDTO.builder()
+                                .type(ProductAggregateChunkDTO.Type.PRODUCT)
+                                .productId(productDTO.getProductId())
+                                .name(productDTO.getName())
+                                .weight(productDTO.getWeight())
+                                .build());
+            }
+
+            if(sections.contains(AggregateSection.REVIEWS)) {
+                reviews = reviewService.getProductReviews(productId, page.offset(), page.limit() + 1)
+                        .doOnNext(reviewDTO -> {
+                            if(reviewCount.getAndIncrement() == 0) {
+                                reviewServiceAddress.set(reviewDTO.serviceAddress());
+                            }
+                        })
+                        .filter(reviewDTO -> reviewCount.get() <= page.limit())
+                        .map(reviewDTO -> buildReviewChunk(productId, reviewService.buildReviewSummary(reviewDTO)));
+            }
+
+            if(sections.contains(AggregateSection.RECOMMENDATIONS)) {
+                recommendations = recommendationService.getProductRecommendations(productId, page.offset(), page.limit() + 1)
+                        .doOnNext(recommendationDTO -> {
+                            if(recommendationCount.getAndIncrement() == 0) {
+                                recommendationServiceAddress.set(recommendationDTO.serviceAddress());
+                            }
+                        })
+                        .filter(recommendationDTO -> recommendationCount.get() <= page.limit())
+                        .map(recommendationDTO -> buildRecommendationChunk(productId, recommendationService.buildRecommendationSummary(recommendationDTO)));
+            }
+
+            // All the legs are subscribed at once, the review and recommendation chunks are held back until the product chunk is emitted.
+            return Flux.concat(Flux.mergeSequential(product, Flux.merge(reviews, recommendations)),
+                            Mono.fromSupplier(() -> buildCompleteChunk(productId,
+                                    ServiceAddressesDTO.builder()
+                                            .productAddress(productServiceAddress.get())
+                                            .reviewAddress(reviewServiceAddress.get())
+                                            .recommendationAddress(recommendationServiceAddress.get())
+                                            .orchestrationAddress(serviceUtil.getAddress())
+                                            .build(),
+                                    buildWarnings(sections.contains(AggregateSection.REVIEWS) && reviewCount.get() == 0,
+                                            sections.contains(AggregateSection.RECOMMENDATIONS) && recommendationCount.get() == 0, staleWarnings),
+                                    sections.contains(AggregateSection.REVIEWS) ? buildPageInfo(page, reviewCount.get(), null) : null,
+                                    sections.contains(AggregateSection.RECOMMENDATIONS) ? buildPageInfo(page, recommendationCount.get(), null) : null)))
+                    .doOnError(ex -> log.warn("Product detail streaming failed: {}", ex.getMessage()))
+                    .log(log.getName(), Level.FINE);
+        }));
+    }
+
+    private Flux<ProductAggregateChunkDTO> buildProductAggregateChunks(ProductAggregateDTO productAggregateDTO, Set<AggregateSection> sections) {
+        Long productId = productAggregateDTO.productId();
 
+        Mono<ProductAggregateChunkDTO> product = Mono.empty();
 
-        return Mono.zip(values -> buildProductAggregate((SecurityContext) values[0], (ProductDTO) values[1], (List<ReviewDTO>) values[2], (List<RecommendationDTO>) values[3]),
-                        getLogAuthorizationInfoMono(), productService.getProduct(productId), reviewService.getProductReviews(productId).collectList(), recommendationService.getProductRecommendations(productId).collectList())
-                .doOnError(ex -> log.warn("Product detail retrieval failed: {}", ex.getMessage()))
+        if(sections.contains(AggregateSection.PRODUCT)) {
+            product = Mono.just(ProductAggregateChunkDTO.builder()
+                    .type(ProductAggregateChunkDTO.Type.PRODUCT)
+                    .productId(productId)
+                    .name(productAggregateDTO.name())
+                    .weight(productAggregateDTO.weight())
+                    .build());
+        }
+
+        return Flux.concat(
+                product,
+                Flux.fromIterable(Optional.ofNullable(productAggregateDTO.reviewSummaries()).orElse(Collections.emptyList()))
+                        .map(reviewSummaryDTO -> buildReviewChunk(productId, reviewSummaryDTO)),
+                Flux.fromIterable(Optional.ofNullable(productAggregateDTO.recommendationSummaries()).orElse(Collections.emptyList()))
+                        .map(recommendationSummaryDTO -> buildRecommendationChunk(productId, recommendationSummaryDTO)),
+                Mono.just(buildCompleteChunk(productId, productAggregateDTO.serviceAddresses(), productAggregateDTO.warnings(), productAggregateDTO.reviewPage(), productAggregateDTO.recommendationPage())));
+    }
+
+    private ProductAggregateChunkDTO buildReviewChunk(Long productId, ReviewSummaryDTO reviewSummaryDTO) {
+        return ProductAggregateChunkDTO.builder()
+                .type(ProductAggregateChunkDTO.Type.REVIEW)
+                .productId(productId)
+                .reviewSummary(reviewSummaryDTO)
+                .build();
+    }
+
+    private ProductAggregateChunkDTO buildRecommendationChunk(Long productId, RecommendationSummaryDTO recommendationSummaryDTO) {
+        return ProductAggregateChunkDTO.builder()
+                .type(ProductAggregateChunkDTO.Type.RECOMMENDATION)
+                .productId(productId)
+                .recommendationSummary(recommendationSummaryDTO)
+                .build();
+    }
+
+    private ProductAggregateChunkDTO buildCompleteChunk(Long productId, ServiceAddressesDTO serviceAddressesDTO, List<String> warnings, PageInfoDTO reviewPage, PageInfoDTO recommendationPage) {
+        return ProductAggregateChunkDTO.builder()
+                .type(ProductAggregateChunkDTO.Type.COMPLETE)
+                .productId(productId)
+                .serviceAddresses(serviceAddressesDTO)
+                .warnings(warnings)
+                .reviewPage(reviewPage)
+                .recommendationPage(recommendationPage)
+                .build();
+    }
+
+    // The count includes the extra element fetched beyond the limit, if any.
+    private PageInfoDTO buildPageInfo(AggregatePage page, int count, Long totalCount) {
+        return PageInfoDTO.builder()
+                .offset(page.offset())
+                .limit(page.limit())
+                .returned(Math.min(count, page.limit()))
+                .hasMore(count > page.limit())
+                .totalCount(totalCount)
+                .build();
+    }
+
+    private PageInfoDTO buildPageInfo(PageDTO<?> page) {
+        return PageInfoDTO.builder()
+                .offset(page.offset())
+                .limit(page.limit())
+                .returned(page.items().size())
+                .hasMore(page.hasMore())
+                .totalCount(page.totalCount())
+                .build();
+    }
+
+    public Flux<ProductAggregateResultDTO> getProductAggregates(Collection<Long> productIds, Set<AggregateSection> sections) {
+        // Duplicated IDs are resolved once, results are emitted in completion order.
+        return Flux.fromIterable(new LinkedHashSet<>(productIds))
+                .flatMap(productId -> getProductAggregateResult(productId, sections), batchConcurrency)
                 .log(log.getName(), Level.FINE);
     }
 
-    private ProductAggregateDTO buildProductAggregate(SecurityContext securityContext, ProductDTO productDTO, List<ReviewDTO> reviews, List<RecommendationDTO> recommendations) {
-        String productServiceAddress = productDTO.getServiceAddress();
+    private Mono<ProductAggregateResultDTO> getProductAggregateResult(Long productId, Set<AggregateSection> sections) {
+        if(Objects.isNull(productId) || productId < 1) {
+            return Mono.just(buildProductAggregateResult(productId, "Invalid product ID: %s".formatted(productId)));
+        }
+
+        return getProductAggregate(productId, sections)
+                .map(productAggregateDTO -> ProductAggregateResultDTO.builder()
+                        .productId(productId)
+                        .productAggregate(productAggregateDTO)
+                        .warnings(productAggregateDTO.warnings())
+                        .build())
+                .switchIfEmpty(Mono.fromSupplier(() -> buildProductAggregateResult(productId, "No product found for ID: %s".formatted(productId))))
+                .onErrorResume(ex -> {
+                    log.warn("Product detail retrieval failed for ID: {}: {}", productId, ex.getMessage());
+                    return Mono.just(buildProductAggregateResult(productId, ex.getMessage()));
+                });
+    }
+
+    private ProductAggregateResultDTO buildProductAggregateResult(Long productId, String error) {
+        return ProductAggregateResultDTO.builder()
+                .productId(productId)
+                .error(error)
+                .warnings(List.of())
+                .build();
+    }
+
+    // Timed here rather than in ProductService, so that the circuit breaker fallback is part of the measured call.
+    // The fallback product is replaced by the last known good product, if any. Either way the leg is marked as failed.
+    private Mono<ProductDTO> getProduct(Long productId, List<String> staleWarnings, AtomicBoolean failed) {
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "getProduct", productService.getProduct(productId), productService::isFallback, null)
+                .map(productDTO -> {
+                    if(!productService.isFallback(productDTO)) {
+                        lastKnownGoodStore.put(OrchestrationMetrics.PRODUCT_SERVICE, productId, null, productDTO);
+                        return productDTO;
+                    }
+
+                    failed.set(true);
+
+                    return getLastKnownGood(OrchestrationMetrics.PRODUCT_SERVICE, productId, null, staleWarnings,
+                            () -> productService.refreshProduct(productId))
+                            .orElse(productDTO);
+                });
+    }
+
+    private Mono<PageDTO<ReviewDTO>> getProductReviewPage(Long productId, AggregatePage page, List<String> staleWarnings, AtomicBoolean failed) {
+        return Mono.defer(() -> {
+            AtomicBoolean legFailed = new AtomicBoolean(false);
+
+            return reviewService.getProductReviewPage(productId, page.offset(), page.limit(), error -> {
+                        legFailed.set(true);
+                        failed.set(true);
+                        return Mono.just(getLastKnownGood(OrchestrationMetrics.REVIEW_SERVICE, productId, page, staleWarnings,
+                                        () -> reviewService.getProductReviewPage(productId, page.offset(), page.limit(), refreshError -> Mono.empty()))
+                                .orElseGet(() -> PageDTO.empty(page.offset(), page.limit())));
+                    })
+                    .doOnNext(reviewPage -> {
+                        if(!legFailed.get()) {
+                            lastKnownGoodStore.put(OrchestrationMetrics.REVIEW_SERVICE, productId, page, reviewPage);
+                        }
+                    });
+        });
+    }
+
+    private Mono<PageDTO<RecommendationDTO>> getProductRecommendationPage(Long productId, AggregatePage page, List<String> staleWarnings, AtomicBoolean failed) {
+        return Mono.defer(() -> {
+            AtomicBoolean legFailed = new AtomicBoolean(false);
+
+            return recommendationService.getProductRecommendationPage(productId, page.offset(), page.limit(), error -> {
+                        legFailed.set(true);
+                        failed.set(true);
+                        return Mono.just(getLastKnownGood(OrchestrationMetrics.RECOMMENDATION_SERVICE, productId, page, staleWarnings,
+                                        () -> recommendationService.getProductRecommendationPage(productId, page.offset(), page.limit(), refreshError -> Mono.empty()))
+                                .orElseGet(() -> PageDTO.empty(page.offset(), page.limit())));
+                    })
+                    .doOnNext(recommendationPage -> {
+                        if(!legFailed.get()) {
+                            lastKnownGoodStore.put(OrchestrationMetrics.RECOMMENDATION_SERVICE, productId, page, recommendationPage);
+                        }
+                    });
+        });
+    }
+
+    private <T> Optional<T> getLastKnownGood(String service, Long productId, Object variant, List<String> staleWarnings, Supplier<Mono<T>> refresh) {
+        return lastKnownGoodStore.get(service, productId, variant, refresh).map(entry -> {
+            log.debug("Using the last known good {} response for product ID: {}, age: {}", service, productId, entry.age());
+            staleWarnings.add("Stale %s information, last updated %s seconds ago".formatted(service, entry.age().toSeconds()));
+            return entry.value();
+        });
+    }
+
+    // When store is set, a result without failed legs is cached. The review and recommendation fallbacks answer with an empty
+    // page when there is no last known good one, so the failures are tracked apart from the warnings.
+    // If the result is complete and fits in the page, it also seeds the local aggregate view. Neither is filled when the product
+    // was invalidated since the read started.
+    private Mono<TaggedProductAggregate> fetchProductAggregate(Long productId, Set<AggregateSection> sections, AggregatePage page, boolean store) {
+        return Mono.defer(() -> {
+            long generation = getGeneration(productId);
+            List<String> staleWarnings = new CopyOnWriteArrayList<>();
+            AtomicBoolean failed = new AtomicBoolean(false);
+
+            // Sections that are not requested are not fetched from the downstream services.
+            Mono<Optional<ProductDTO>> product = sections.contains(AggregateSection.PRODUCT) ? getProduct(productId, staleWarnings, failed).map(Optional::of) : Mono.just(Optional.empty());
+            Mono<PageDTO<ReviewDTO>> reviews = sections.contains(AggregateSection.REVIEWS) ? getProductReviewPage(productId, page, staleWarnings, failed) : Mono.just(PageDTO.empty(page.offset(), page.limit()));
+            Mono<PageDTO<RecommendationDTO>> recommendations = sections.contains(AggregateSection.RECOMMENDATIONS) ? getProductRecommendationPage(productId, page, staleWarnings, failed) : Mono.just(PageDTO.empty(page.offset(), page.limit()));
+
+            return Mono.zip(values -> {
+                                PageDTO<ReviewDTO> reviewPage = (PageDTO<ReviewDTO>) values[2];
+                                PageDTO<RecommendationDTO> recommendationPage = (PageDTO<RecommendationDTO>) values[3];
+                                ProductDTO productDTO = ((Optional<ProductDTO>) values[1]).orElse(null);
+                                boolean cacheable = store && !failed.get();
+
+                                // A leg that fell back to an empty page would otherwise be served from the view as current data.
+                                if(cacheable && Objects.nonNull(productDTO) && !productService.isFallback(productDTO) && !reviewPage.hasMore() && !recommendationPage.hasMore()) {
+                                    storeIfCurrent(productId, generation, () -> productAggregateView.put(productId, productDTO, reviewPage.items(), recommendationPage.items()));
+                                }
+
+                                TaggedProductAggregate productAggregate = TaggedProductAggregate.of(orchestrationMetrics.timeAssembly(() -> buildProductAggregate(productId, productDTO, reviewPage.items(), recommendationPage.items(), sections,
+                                        sections.contains(AggregateSection.REVIEWS) ? buildPageInfo(reviewPage) : null,
+                                        sections.contains(AggregateSection.RECOMMENDATIONS) ? buildPageInfo(recommendationPage) : null, staleWarnings)));
+
+                                if(cacheable) {
+                                    storeIfCurrent(productId, generation, () -> productAggregateCache.put(productId, productAggregate));
+                                }
+                                return productAggregate;
+                            },
+                            getLogAuthorizationInfoMono(), product, reviews, recommendations)
+                    .doOnError(ex -> log.warn("Product detail retrieval failed: {}", ex.getMessage()))
+                    .log(log.getName(), Level.FINE);
+        });
+    }
+
+    private ProductAggregateDTO projectProductAggregate(ProductAggregateDTO productAggregateDTO, Set<AggregateSection> sections) {
+        if(AggregateSection.isComplete(sections)) {
+            return productAggregateDTO;
+        }
+
+        boolean includeProduct = sections.contains(AggregateSection.PRODUCT);
+        boolean includeReviews = sections.contains(AggregateSection.REVIEWS);
+        boolean includeRecommendations = sections.contains(AggregateSection.RECOMMENDATIONS);
+        ServiceAddressesDTO serviceAddresses = productAggregateDTO.serviceAddresses();
+
+        return ProductAggregateDTO.builder()
+                .productId(productAggregateDTO.productId())
+                .name(includeProduct ? productAggregateDTO.name() : null)
+                .weight(includeProduct ? productAggregateDTO.weight() : null)
+                .reviewSummaries(includeReviews ? productAggregateDTO.reviewSummaries() : null)
+                .recommendationSummaries(includeRecommendations ? productAggregateDTO.recommendationSummaries() : null)
+                .serviceAddresses(ServiceAddressesDTO.builder()
+                        .productAddress(includeProduct ? serviceAddresses.productAddress() : "")
+                        .reviewAddress(includeReviews ? serviceAddresses.reviewAddress() : "")
+                        .recommendationAddress(includeRecommendations ? serviceAddresses.recommendationAddress() : "")
+                        .orchestrationAddress(serviceAddresses.orchestrationAddress())
+                        .build())
+                .warnings(buildWarnings(includeReviews && CollectionUtils.isEmpty(productAggregateDTO.reviewSummaries()),
+                        includeRecommendations && CollectionUtils.isEmpty(productAggregateDTO.recommendationSummaries())))
+                .reviewPage(includeReviews ? productAggregateDTO.reviewPage() : null)
+                .recommendationPage(includeRecommendations ? productAggregateDTO.recommendationPage() : null)
+                .build();
+    }
+
+    private ProductAggregateDTO buildProductAggregate(Long productId, ProductDTO productDTO, List<ReviewDTO> reviews, List<RecommendationDTO> recommendations, Set<AggregateSection> sections,
+                                                      PageInfoDTO reviewPage, PageInfoDTO recommendationPage, List<String> staleWarnings) {
+        String productServiceAddress = "";
         String reviewServiceAddress = "";
         String recommendationServiceAddress = "";
 
-        logAuthorizationInfo(securityContext);
+        boolean includeReviews = sections.contains(AggregateSection.REVIEWS);
+        boolean includeRecommendations = sections.contains(AggregateSection.RECOMMENDATIONS);
 
-        List<String> warnings = new ArrayList<>();
+        List<String> warnings = buildWarnings(includeReviews && CollectionUtils.isEmpty(reviews), includeRecommendations && CollectionUtils.isEmpty(recommendations), staleWarnings);
 
-        if(CollectionUtils.isEmpty(reviews)) {
-            warnings.add("Empty product review");
-        } else {
+        if(Objects.nonNull(productDTO)) {
+            productServiceAddress = productDTO.getServiceAddress();
+        }
+
+        if(!CollectionUtils.isEmpty(reviews)) {
             reviewServiceAddress = reviews.get(0).serviceAddress();
         }
 
-        if(CollectionUtils.isEmpty(recommendations)) {
-            warnings.add("Empty product recommendations");
-        } else {
+        if(!CollectionUtils.isEmpty(recommendations)) {
             recommendationServiceAddress = recommendations.get(0).serviceAddress();
         }
 
-        List<ReviewSummaryDTO> reviewSummaries = reviewService.buildReviewSummaries(reviews);
-        List<RecommendationSummaryDTO> recommendationSummaries = recommendationService.buildRecommendationSummaries(recommendations);
+        List<ReviewSummaryDTO> reviewSummaries = includeReviews ? reviewService.buildReviewSummaries(reviews) : null;
+        List<RecommendationSummaryDTO> recommendationSummaries = includeRecommendations ? recommendationService.buildRecommendationSummaries(recommendations) : null;
 
         ServiceAddressesDTO serviceAddressesDTO = ServiceAddressesDTO.builder()
                 .productAddress(productServiceAddress)
@@ -185,16 +810,46 @@ public class IntegrationService {
                 .build();
 
         return ProductAggregateDTO.builder()
-                .productId(productDTO.getProductId())
-                .name(productDTO.getName())
-                .weight(productDTO.getWeight())
+                .productId(Objects.nonNull(productDTO) ? productDTO.getProductId() : productId)
+                .name(Objects.nonNull(productDTO) ? productDTO.getName() : null)
+                .weight(Objects.nonNull(productDTO) ? productDTO.getWeight() : null)
                 .recommendationSummaries(recommendationSummaries)
                 .reviewSummaries(reviewSummaries)
                 .serviceAddresses(serviceAddressesDTO)
                 .warnings(warnings)
+                .reviewPage(reviewPage)
+                .recommendationPage(recommendationPage)
                 .build();
     }
 
+    private ProductAggregateDTO buildProductAggregate(Long productId, ProductAggregateView.Entry viewEntry, AggregatePage page) {
+        List<ReviewDTO> reviews = viewEntry.reviews();
+        List<RecommendationDTO> recommendations = viewEntry.recommendations();
+
+        return orchestrationMetrics.timeAssembly(() -> buildProductAggregate(productId, viewEntry.product(),
+                reviews.subList(0, Math.min(reviews.size(), page.limit())), recommendations.subList(0, Math.min(recommendations.size(), page.limit())), AggregateSection.ALL,
+                buildPageInfo(page, reviews.size(), (long) reviews.size()), buildPageInfo(page, recommendations.size(), (long) recommendations.size()), List.of()));
+    }
+
+    private List<String> buildWarnings(boolean emptyReviews, boolean emptyRecommendations) {
+        return buildWarnings(emptyReviews, emptyRecommendations, List.of());
+    }
+
+    private List<String> buildWarnings(boolean emptyReviews, boolean emptyRecommendations, List<String> staleWarnings) {
+        List<String> warnings = new ArrayList<>(staleWarnings);
+
+        if(emptyReviews) {
+            warnings.add("Empty product review");
+        }
+
+        if(emptyRecommendations) {
+            warnings.add("Empty product recommendations");
+        }
+
+        return warnings;
+    }
+
+    // The authorization info is logged once per request, when the security context is read.
     private Mono<SecurityContext> getLogAuthorizationInfoMono() {
         return getSecurityContextMono().doOnNext(this::logAuthorizationInfo);
     }
@@ -215,7 +870,7 @@ public class IntegrationService {
     private void logAuthorizationInfo(Jwt jwt) {
         if(Objects.isNull(jwt)) {
             log.warn("No JWT supplied.");
-        }else {
+        }else if(log.isDebugEnabled()) {
             URL issuer = jwt.getIssuer();
             List<String> audience = jwt.getAudience();
             Object subject = jwt.getClaims().get("sub");
@@ -225,4 +880,7 @@ public class IntegrationService {
             log.debug("Authorization info: Subject: {}, scopes: {}, expires {}: issuer: {}, audience: {}", subject, scopes, expires, issuer, audience);
         }
     }
+
+    private record AggregateKey(Long productId, Set<AggregateSection> sections, AggregatePage page) {
+    }
 }
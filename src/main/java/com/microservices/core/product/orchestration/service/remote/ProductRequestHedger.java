@@ -0,0 +1,149 @@
+package com.microservices.core.product.orchestration.service.remote;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class ProductRequestHedger {
+
+    public static final String HEDGE_FIRED_COUNTER = "orchestration.hedge.fired";
+    public static final String HEDGE_WON_COUNTER = "orchestration.hedge.won";
+    public static final String ATTEMPT_TIMER = "orchestration.hedge.attempt";
+
+    private static final String SERVICE = "product";
+
+    @Value("${app.hedging.product.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.hedging.product.delay:#{null}}")
+    private Duration fixedDelay;
+
+    @Value("${app.hedging.product.percentile:0.95}")
+    private double percentile;
+
+    @Value("${app.hedging.product.minDelay:PT0.01S}")
+    private Duration minDelay;
+
+    @Value("${app.hedging.product.maxDelay:PT0.5S}")
+    private Duration maxDelay;
+
+    @Value("${app.hedging.product.minSamples:100}")
+    private long minSamples;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer attemptTimer;
+
+    private Counter hedgeFiredCounter;
+
+    private Counter hedgeWonCounter;
+
+    @PostConstruct
+    void init() {
+        attemptTimer = Timer.builder(ATTEMPT_TIMER)
+                .description("Latency of single product-service attempts, used to derive the hedging delay")
+                .tag("service", SERVICE)
+                .publishPercentiles(percentile)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+
+        hedgeFiredCounter = Counter.builder(HEDGE_FIRED_COUNTER)
+                .description("Hedged requests sent because the first attempt was slower than the hedging delay")
+                .tag("service", SERVICE)
+                .register(meterRegistry);
+
+        hedgeWonCounter = Counter.builder(HEDGE_WON_COUNTER)
+                .description("Hedged requests that answered before the first attempt")
+                .tag("service", SERVICE)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Sends a second attempt when the first one has not answered within the hedging delay and returns the first value.
+    // The losing attempt is cancelled. A first attempt that fails before the delay is not hedged, so that the
+    // failure reaches the retry and circuit breaker configuration as it did before.
+    public <T> Mono<T> hedge(Supplier<Mono<T>> request) {
+        if(!enabled) {
+            return Mono.defer(request);
+        }
+
+        return Mono.defer(() -> {
+            Duration delay = getHedgeDelay();
+            Sinks.Empty<Void> firstAttemptDone = Sinks.empty();
+
+            Mono<Attempt<T>> firstAttempt = timeAttempt(request)
+                    .map(value -> new Attempt<>(value, false))
+                    .doOnTerminate(firstAttemptDone::tryEmitEmpty);
+
+            Mono<Attempt<T>> hedgedAttempt = Mono.delay(delay)
+                    .takeUntilOther(firstAttemptDone.asMono())
+                    .flatMap(tick -> {
+                        log.debug("Product request did not answer within {}, sending a hedged request", delay);
+                        hedgeFiredCounter.increment();
+                        return timeAttempt(request).map(value -> new Attempt<>(value, true));
+                    });
+
+            return Flux.mergeDelayError(2, firstAttempt, hedgedAttempt)
+                    .next()
+                    .doOnNext(attempt -> {
+                        if(attempt.hedged()) {
+                            hedgeWonCounter.increment();
+                        }
+                    })
+                    .map(Attempt::value)
+                    .onErrorMap(Exceptions::isMultiple, ex -> Exceptions.unwrapMultiple(ex).get(0));
+        });
+    }
+
+    Duration getHedgeDelay() {
+        if(Objects.nonNull(fixedDelay)) {
+            return fixedDelay;
+        }
+
+        // Until there are enough samples the observed percentile is not meaningful, so only very slow attempts are hedged.
+        if(attemptTimer.count() < minSamples) {
+            return maxDelay;
+        }
+
+        for(ValueAtPercentile valueAtPercentile : attemptTimer.takeSnapshot().percentileValues()) {
+            if(valueAtPercentile.percentile() == percentile) {
+                Duration observed = Duration.ofNanos((long) valueAtPercentile.value(TimeUnit.NANOSECONDS));
+                return observed.compareTo(minDelay) < 0 ? minDelay : observed.compareTo(maxDelay) > 0 ? maxDelay : observed;
+            }
+        }
+
+        return maxDelay;
+    }
+
+    // Cancelled attempts are recorded as well, otherwise the slow attempts that lost would be missing from the percentile.
+    private <T> Mono<T> timeAttempt(Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return Mono.defer(request).doFinally(signal -> sample.stop(attemptTimer));
+        });
+    }
+
+    private record Attempt<T>(T value, boolean hedged) {
+    }
+}
@@ -1,10 +1,15 @@
 package com.microservices.core.product.orchestration.service.remote;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.config.WebClientConfig;
 import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
 import com.microservices.core.product.orchestration.service.mapper.ProductMapper;
+import com.microservices.core.product.orchestration.service.metrics.OrchestrationMetrics;
+import com.microservices.core.product.orchestration.service.publish.EventPublisher;
 import com.microservices.core.product.orchestration.service.util.TopicConstants;
 import com.microservices.core.util.api.event.Event;
+import com.microservices.core.util.exceptions.InvalidInputException;
+import com.microservices.core.util.exceptions.NotFoundException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
@@ -14,24 +19,26 @@ import com.microservices.core.product.orchestration.service.remote.dto.ProductDT
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.http.*;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Scheduler;
 
 import java.net.URI;
 import java.time.ZonedDateTime;
+import java.util.List;
 import java.util.logging.Level;
 
 @Slf4j
 @Component
 public class ProductService {
 
+    private static final Long FALLBACK_PRODUCT_ID = 0L;
+
     @Autowired
     private RestTemplate restTemplate;
 
@@ -48,14 +55,17 @@ public class ProductService {
     private ProductMapper productMapper;
 
     @Autowired
-    @Qualifier("publishEventScheduler")
-    private Scheduler publishEventScheduler;
+    private EventPublisher eventPublisher;
 
     @Autowired
-    private StreamBridge streamBridge;
+    @Qualifier(WebClientConfig.PRODUCT_WEB_CLIENT)
+    private WebClient webClient;
 
     @Autowired
-    private WebClient webClient;
+    private OrchestrationMetrics orchestrationMetrics;
+
+    @Autowired
+    private ProductRequestHedger productRequestHedger;
 
     public ProductDTO buildProduct(ProductAggregateDTO productAggregateDTO) {
         return productMapper.mapAtoB(productAggregateDTO);
@@ -68,24 +78,47 @@ public class ProductService {
         log.debug("Retrieving product information using ID: {}", productId);
         log.debug("URL: {}{}", getProductServiceUrl(),productId);
 
+        // Hedging runs inside the resilience4j operators, so the time limit, retries and circuit breaker apply to the hedged call as a whole.
+        return productRequestHedger.hedge(() -> retrieveProduct(productId));
+
+    }
+
+    // Refreshes a last known good product. Going through the circuit breaker, the refresh would only get the fallback product
+    // while the circuit is open, which is when the stored product is served. The response timeout of the web client bounds the call.
+    public Mono<ProductDTO> refreshProduct(Long productId) {
+        log.debug("Refreshing product information using ID: {}", productId);
+
+        return retrieveProduct(productId);
+    }
+
+    private Mono<ProductDTO> retrieveProduct(Long productId) {
         return webClient.get()
                 .uri(getProductServiceUrl() + productId)
                 .retrieve()
                 .bodyToMono(ProductDTO.class)
                 .log(log.getName(), Level.FINE)
                 .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper));
+    }
+
+    // A missing product or an invalid ID is an answer and not a failure, so it is passed on. For other failures the
+    // fallback product tells the caller to use the last known good product, if any.
+    private Mono<ProductDTO> getProductFallbackValue(Long productId, Throwable ex) {
+        if(ex instanceof NotFoundException || ex instanceof InvalidInputException) {
+            return Mono.error(ex);
+        }
 
+        log.warn("Product retrieval failed for ID: {}, using the fallback product: {}", productId, ex.toString());
+        return Mono.just(new ProductDTO(FALLBACK_PRODUCT_ID, "Fallback product", 0, "Fallback service address"));
     }
 
-    private Mono<ProductDTO> getProductFallbackValue() {
-        return Mono.just(new ProductDTO(0L, "Fallback product", 0, "Fallback service address"));
+    public boolean isFallback(ProductDTO productDTO) {
+        return FALLBACK_PRODUCT_ID.equals(productDTO.getProductId());
     }
 
     public Mono<ProductDTO> createProductAsync(ProductDTO productDTO) {
-        return Mono.fromCallable(() -> {
-            ProductOrchestrationUtil.sendMessage(streamBridge, new Event<>(Event.Type.CREATE, productDTO.getProductId(), productDTO, ZonedDateTime.now()), TopicConstants.PRODUCT_TOPIC);
-            return productDTO;
-        }).subscribeOn(publishEventScheduler);
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "createProductAsync", Mono.defer(() -> eventPublisher.send(TopicConstants.PRODUCT_TOPIC,
+                        ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.CREATE, productDTO.getProductId(), productDTO, ZonedDateTime.now()))))
+                .thenReturn(productDTO));
     }
 
     public Mono<ProductDTO> createProduct(ProductDTO productDTO) {
@@ -96,32 +129,37 @@ public class ProductService {
 
         HttpEntity<ProductDTO> entity = new HttpEntity<>(productDTO, headers);
 
-        return webClient.post()
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "createProduct", webClient.post()
                 .uri(getProductServiceUrl())
                 .headers(httpHeaders -> httpHeaders.setContentType(MediaType.APPLICATION_JSON))
                 .body(Mono.just(productDTO), ProductDTO.class)
                 .retrieve()
                 .bodyToMono(ProductDTO.class)
                 .log(log.getName(), Level.FINE)
-                .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper));
+                .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper)));
 
 
     }
 
     public Mono<Void> deleteProductAsync(Long productId) {
-        return Mono.fromRunnable(() -> {
-            ProductOrchestrationUtil.sendMessage(streamBridge, new Event<>(Event.Type.DELETE, productId, null, null), TopicConstants.PRODUCT_TOPIC);
-        }).subscribeOn(publishEventScheduler).then();
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "deleteProductAsync", Mono.defer(() -> eventPublisher.send(TopicConstants.PRODUCT_TOPIC,
+                        ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.DELETE, productId, null, null)))));
+    }
+
+    // One delete event per product, all handed to the publisher at once instead of one send per product.
+    public Mono<Void> deleteProductsAsync(List<Long> productIds) {
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "deleteProductsAsync", Mono.defer(() -> eventPublisher.sendAll(TopicConstants.PRODUCT_TOPIC,
+                        productIds.stream().<Message<?>>map(productId -> ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.DELETE, productId, null, null))).toList())));
     }
 
     public Mono<Void> deleteProduct(Long productId) {
         log.debug("Deleting product using ID: {}", productId);
 
-        return webClient.delete()
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "deleteProduct", webClient.delete()
                 .uri(getProductServiceUrl() + productId)
                 .retrieve()
                 .bodyToMono(Void.class)
-                .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper));
+                .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper)));
 
     }
 
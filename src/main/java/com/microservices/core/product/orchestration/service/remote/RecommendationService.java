@@ -1,9 +1,14 @@
 package com.microservices.core.product.orchestration.service.remote;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.config.WebClientConfig;
 import com.microservices.core.product.orchestration.service.mapper.RecommendationMapper;
+import com.microservices.core.product.orchestration.service.metrics.OrchestrationMetrics;
+import com.microservices.core.product.orchestration.service.publish.EventPublisher;
+import com.microservices.core.product.orchestration.service.remote.dto.PageDTO;
 import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
 import com.microservices.core.product.orchestration.service.util.ProductOrchestrationUtil;
+import com.microservices.core.product.orchestration.service.util.SizeEstimator;
 import com.microservices.core.product.orchestration.service.util.TopicConstants;
 import com.microservices.core.util.api.event.Event;
 import lombok.extern.slf4j.Slf4j;
@@ -12,8 +17,8 @@ import com.microservices.core.product.orchestration.service.remote.dto.Recommend
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.http.MediaType;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.client.HttpClientErrorException;
@@ -22,12 +27,13 @@ import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Scheduler;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.logging.Level;
 
 @Slf4j
@@ -50,18 +56,28 @@ public class RecommendationService {
     private RecommendationMapper recommendationMapper;
 
     @Autowired
-    @Qualifier("publishEventScheduler")
-    private Scheduler publishEventScheduler;
+    private EventPublisher eventPublisher;
 
     @Autowired
-    private StreamBridge streamBridge;
+    @Qualifier(WebClientConfig.RECOMMENDATION_WEB_CLIENT)
+    private WebClient webClient;
 
     @Autowired
-    private WebClient webClient;
+    private OrchestrationMetrics orchestrationMetrics;
+
+    @Value("${app.publish.batch.maxSize:500}")
+    private Integer maxBatchSize;
+
+    @Value("${app.publish.batch.maxBytes:262144}")
+    private Integer maxBatchBytes;
 
     public List<RecommendationSummaryDTO> buildRecommendationSummaries(List<RecommendationDTO> recommendations) {
         return Optional.ofNullable(recommendations).orElse(Collections.emptyList())
-                .stream().map(recommendationMapper::mapBtoA).toList();
+                .stream().map(this::buildRecommendationSummary).toList();
+    }
+
+    public RecommendationSummaryDTO buildRecommendationSummary(RecommendationDTO recommendation) {
+        return recommendationMapper.mapBtoA(recommendation);
     }
 
     public List<RecommendationDTO> buildRecommendations(List<RecommendationSummaryDTO> recommendationSummaryDTOS, ProductDTO productDTO) {
@@ -69,16 +85,17 @@ public class RecommendationService {
                 .stream().map(recommendationSummaryDTO -> recommendationMapper.mapAtoB(recommendationSummaryDTO, productDTO)).toList();
     }
 
-    public Flux<RecommendationDTO> getProductRecommendations(Long productId) {
-        log.debug("Retrieving product recommendation for product ID: {}", productId);
+    public Flux<RecommendationDTO> getProductRecommendations(Long productId, int offset, int limit) {
+        log.debug("Retrieving product recommendation for product ID: {}, offset: {}, limit: {}", productId, offset, limit);
         log.debug("URL: {}{}", getRecommendationServiceUrlWithParam(),productId);
 
-        Flux<RecommendationDTO> recommendationDTOFlux = webClient.get()
-                .uri(getRecommendationServiceUrlWithParam() + productId)
+        // take() caps the demand, so the response body is no longer read once the page is full.
+        Flux<RecommendationDTO> recommendationDTOFlux = orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "getProductRecommendations", webClient.get()
+                .uri(getRecommendationServiceUrlWithParam() + productId + ProductOrchestrationUtil.getPageParams(offset, limit))
                 .retrieve()
                 .bodyToFlux(RecommendationDTO.class)
-                .log(log.getName(), Level.FINE)
-                .onErrorResume(error -> {
+                .take(limit)
+                .log(log.getName(), Level.FINE), error -> {
                     log.debug("Encountered and error: {}", error.getMessage());
                     return Flux.empty();
                 });
@@ -87,11 +104,45 @@ public class RecommendationService {
         return recommendationDTOFlux;
     }
 
+    public Mono<PageDTO<RecommendationDTO>> getProductRecommendationPage(Long productId, int offset, int limit) {
+        return getProductRecommendationPage(productId, offset, limit, error -> Mono.just(PageDTO.empty(offset, limit)));
+    }
+
+    public Mono<PageDTO<RecommendationDTO>> getProductRecommendationPage(Long productId, int offset, int limit, Function<Throwable, Mono<PageDTO<RecommendationDTO>>> fallback) {
+        log.debug("Retrieving product recommendation page for product ID: {}, offset: {}, limit: {}", productId, offset, limit);
+
+        // One extra recommendation is requested to find out if there is a next page.
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "getProductRecommendationPage", webClient.get()
+                .uri(getRecommendationServiceUrlWithParam() + productId + ProductOrchestrationUtil.getPageParams(offset, limit + 1))
+                .retrieve()
+                .toEntityFlux(RecommendationDTO.class)
+                .flatMap(responseEntity -> Optional.ofNullable(responseEntity.getBody()).orElse(Flux.empty())
+                        .take(limit + 1L)
+                        .collectList()
+                        .map(recommendations -> ProductOrchestrationUtil.buildPage(recommendations, offset, limit, responseEntity.getHeaders())))
+                .log(log.getName(), Level.FINE), error -> {
+                    log.debug("Encountered and error: {}", error.getMessage());
+                    return fallback.apply(error);
+                });
+    }
+
     public Mono<RecommendationDTO> createProductRecommendationAsync(RecommendationDTO recommendationDTO) {
-        return Mono.fromCallable(() -> {
-            ProductOrchestrationUtil.sendMessage(streamBridge, new Event<>(Event.Type.CREATE, recommendationDTO.productId(), recommendationDTO, ZonedDateTime.now()), TopicConstants.RECOMMENDATION_TOPIC);
-            return recommendationDTO;
-        }).subscribeOn(publishEventScheduler);
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "createProductRecommendationAsync", Mono.defer(() -> eventPublisher.send(TopicConstants.RECOMMENDATION_TOPIC,
+                        ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.CREATE, recommendationDTO.productId(), recommendationDTO, ZonedDateTime.now()))))
+                .thenReturn(recommendationDTO));
+    }
+
+    // All the batches of an aggregate are handed to the publisher at once instead of one send per item.
+    public Mono<List<RecommendationDTO>> createProductRecommendationsAsync(Long productId, List<RecommendationDTO> recommendationDTOS) {
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "createProductRecommendationsAsync", Mono.defer(() -> {
+            List<List<RecommendationDTO>> batches = ProductOrchestrationUtil.buildBatches(recommendationDTOS, maxBatchSize, maxBatchBytes, SizeEstimator::estimateSerialized);
+            List<Message<?>> messages = new ArrayList<>(batches.size());
+
+            for(int i = 0; i < batches.size(); i++) {
+                messages.add(ProductOrchestrationUtil.buildBatchMessage(Event.Type.CREATE, productId, batches.get(i), i, batches.size()));
+            }
+            return eventPublisher.sendAll(TopicConstants.RECOMMENDATION_TOPIC, messages);
+        }).thenReturn(recommendationDTOS));
     }
 
     public Flux<List<RecommendationDTO>> createProductRecommendations(List<RecommendationDTO> recommendationDTOS) {
@@ -101,33 +152,37 @@ public class RecommendationService {
 
         log.debug("Creating new recommendations: {}", recommendationDTOS);
 
-        Flux<List<RecommendationDTO>> recommendationDTOFlux = webClient.post()
+        Flux<List<RecommendationDTO>> recommendationDTOFlux = orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "createProductRecommendations", webClient.post()
                 .uri(getRecommendationServiceUrl())
                 .headers(httpHeaders -> httpHeaders.setContentType(MediaType.APPLICATION_JSON))
                 .body(Flux.fromIterable(recommendationDTOS), RecommendationDTO.class)
                 .retrieve()
                 .bodyToFlux(RecommendationDTO.class)
                 .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper))
-                .collectList().flatMapMany(Flux::just);
+                .collectList().flatMapMany(Flux::just));
 
         log.debug("Created recommendations: {}", recommendationDTOFlux);
         return recommendationDTOFlux;
     }
 
     public Mono<Void> deleteProductRecommendationsAsync(Long productId) {
-        return Mono.fromRunnable(() -> {
-            ProductOrchestrationUtil.sendMessage(streamBridge, new Event<>(Event.Type.DELETE, productId, null, null), TopicConstants.RECOMMENDATION_TOPIC);
-        }).subscribeOn(publishEventScheduler).then();
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "deleteProductRecommendationsAsync", Mono.defer(() -> eventPublisher.send(TopicConstants.RECOMMENDATION_TOPIC,
+                        ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.DELETE, productId, null, null)))));
+    }
+
+    public Mono<Void> deleteRecommendationsAsync(List<Long> productIds) {
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "deleteRecommendationsAsync", Mono.defer(() -> eventPublisher.sendAll(TopicConstants.RECOMMENDATION_TOPIC,
+                        productIds.stream().<Message<?>>map(productId -> ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.DELETE, productId, null, null))).toList())));
     }
 
     public Mono<Void> deleteProductRecommendations(Long productId) {
         log.debug("Deleting product recommendation using product ID: {}", productId);
 
-        return webClient.delete()
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "deleteProductRecommendations", webClient.delete()
                 .uri(getRecommendationServiceUrlWithParam() + productId)
                 .retrieve()
                 .bodyToMono(Void.class)
-                .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper));
+                .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper)));
 
     }
 
@@ -1,9 +1,14 @@
 package com.microservices.core.product.orchestration.service.remote;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.config.WebClientConfig;
 import com.microservices.core.product.orchestration.service.mapper.ReviewMapper;
+import com.microservices.core.product.orchestration.service.metrics.OrchestrationMetrics;
+import com.microservices.core.product.orchestration.service.publish.EventPublisher;
+import com.microservices.core.product.orchestration.service.remote.dto.PageDTO;
 import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
 import com.microservices.core.product.orchestration.service.util.ProductOrchestrationUtil;
+import com.microservices.core.product.orchestration.service.util.SizeEstimator;
 import com.microservices.core.product.orchestration.service.util.TopicConstants;
 import com.microservices.core.util.api.event.Event;
 import lombok.extern.slf4j.Slf4j;
@@ -12,8 +17,8 @@ import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.http.MediaType;
+import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.client.HttpClientErrorException;
@@ -22,12 +27,13 @@ import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Scheduler;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.logging.Level;
 
 @Slf4j
@@ -50,18 +56,28 @@ public class ReviewService {
     private ReviewMapper reviewMapper;
 
     @Autowired
-    @Qualifier("publishEventScheduler")
-    private Scheduler publishEventScheduler;
+    private EventPublisher eventPublisher;
 
     @Autowired
-    private StreamBridge streamBridge;
+    @Qualifier(WebClientConfig.REVIEW_WEB_CLIENT)
+    private WebClient webClient;
 
     @Autowired
-    private WebClient webClient;
+    private OrchestrationMetrics orchestrationMetrics;
+
+    @Value("${app.publish.batch.maxSize:500}")
+    private Integer maxBatchSize;
+
+    @Value("${app.publish.batch.maxBytes:262144}")
+    private Integer maxBatchBytes;
 
     public List<ReviewSummaryDTO> buildReviewSummaries(List<ReviewDTO> reviews) {
         return Optional.ofNullable(reviews).orElse(Collections.emptyList())
-                .stream().map(reviewMapper::mapBtoA).toList();
+                .stream().map(this::buildReviewSummary).toList();
+    }
+
+    public ReviewSummaryDTO buildReviewSummary(ReviewDTO review) {
+        return reviewMapper.mapBtoA(review);
     }
 
     public List<ReviewDTO> buildReviews(List<ReviewSummaryDTO> reviewSummaryDTOS, ProductDTO productDTO) {
@@ -69,16 +85,17 @@ public class ReviewService {
                 .stream().map(reviewSummaryDTO -> reviewMapper.mapAtoB(reviewSummaryDTO, productDTO)).toList();
     }
 
-    public Flux<ReviewDTO> getProductReviews(Long productId) {
-        log.debug("Retrieving product reviews for product ID: {}", productId);
+    public Flux<ReviewDTO> getProductReviews(Long productId, int offset, int limit) {
+        log.debug("Retrieving product reviews for product ID: {}, offset: {}, limit: {}", productId, offset, limit);
         log.debug("URL: {}{}", getReviewServiceWithParamUrl(),productId);
 
-        Flux<ReviewDTO> reviewDTOFlux = webClient.get()
-                .uri(getReviewServiceWithParamUrl() + productId)
+        // take() caps the demand, so the response body is no longer read once the page is full.
+        Flux<ReviewDTO> reviewDTOFlux = orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "getProductReviews", webClient.get()
+                .uri(getReviewServiceWithParamUrl() + productId + ProductOrchestrationUtil.getPageParams(offset, limit))
                 .retrieve()
                 .bodyToFlux(ReviewDTO.class)
-                .log(log.getName(), Level.FINE)
-                .onErrorResume(error -> {
+                .take(limit)
+                .log(log.getName(), Level.FINE), error -> {
                     log.debug("Encountered and error: {}", error.getMessage());
                     return Flux.empty();
                 });
@@ -87,11 +104,45 @@ public class ReviewService {
         return reviewDTOFlux;
     }
 
+    public Mono<PageDTO<ReviewDTO>> getProductReviewPage(Long productId, int offset, int limit) {
+        return getProductReviewPage(productId, offset, limit, error -> Mono.just(PageDTO.empty(offset, limit)));
+    }
+
+    public Mono<PageDTO<ReviewDTO>> getProductReviewPage(Long productId, int offset, int limit, Function<Throwable, Mono<PageDTO<ReviewDTO>>> fallback) {
+        log.debug("Retrieving product review page for product ID: {}, offset: {}, limit: {}", productId, offset, limit);
+
+        // One extra review is requested to find out if there is a next page.
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "getProductReviewPage", webClient.get()
+                .uri(getReviewServiceWithParamUrl() + productId + ProductOrchestrationUtil.getPageParams(offset, limit + 1))
+                .retrieve()
+                .toEntityFlux(ReviewDTO.class)
+                .flatMap(responseEntity -> Optional.ofNullable(responseEntity.getBody()).orElse(Flux.empty())
+                        .take(limit + 1L)
+                        .collectList()
+                        .map(reviews -> ProductOrchestrationUtil.buildPage(reviews, offset, limit, responseEntity.getHeaders())))
+                .log(log.getName(), Level.FINE), error -> {
+                    log.debug("Encountered and error: {}", error.getMessage());
+                    return fallback.apply(error);
+                });
+    }
+
     public Mono<ReviewDTO> createProductReviewAsync(ReviewDTO reviewDTO) {
-        return Mono.fromCallable(() -> {
-            ProductOrchestrationUtil.sendMessage(streamBridge, new Event<>(Event.Type.CREATE, reviewDTO.productId(), reviewDTO, ZonedDateTime.now()), TopicConstants.REVIEW_TOPIC);
-            return reviewDTO;
-        }).subscribeOn(publishEventScheduler);
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "createProductReviewAsync", Mono.defer(() -> eventPublisher.send(TopicConstants.REVIEW_TOPIC,
+                        ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.CREATE, reviewDTO.productId(), reviewDTO, ZonedDateTime.now()))))
+                .thenReturn(reviewDTO));
+    }
+
+    // All the batches of an aggregate are handed to the publisher at once instead of one send per item.
+    public Mono<List<ReviewDTO>> createProductReviewsAsync(Long productId, List<ReviewDTO> reviewDTOS) {
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "createProductReviewsAsync", Mono.defer(() -> {
+            List<List<ReviewDTO>> batches = ProductOrchestrationUtil.buildBatches(reviewDTOS, maxBatchSize, maxBatchBytes, SizeEstimator::estimateSerialized);
+            List<Message<?>> messages = new ArrayList<>(batches.size());
+
+            for(int i = 0; i < batches.size(); i++) {
+                messages.add(ProductOrchestrationUtil.buildBatchMessage(Event.Type.CREATE, productId, batches.get(i), i, batches.size()));
+            }
+            return eventPublisher.sendAll(TopicConstants.REVIEW_TOPIC, messages);
+        }).thenReturn(reviewDTOS));
     }
 
     public Flux<List<ReviewDTO>> createProductReviews(List<ReviewDTO> reviewDTOS) {
@@ -101,14 +152,14 @@ public class ReviewService {
 
         log.debug("Creating new product reviews: {}", reviewDTOS);
 
-        Flux<List<ReviewDTO>> createdReviewDTO =  webClient.post()
+        Flux<List<ReviewDTO>> createdReviewDTO = orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "createProductReviews", webClient.post()
                 .uri(getReviewServiceUrl())
                 .headers(httpHeaders -> httpHeaders.setContentType(MediaType.APPLICATION_JSON))
                 .body(Flux.fromIterable(reviewDTOS), ReviewDTO.class)
                 .retrieve()
                 .bodyToFlux(ReviewDTO.class)
                 .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper))
-                .collectList().flatMapMany(Flux::just);
+                .collectList().flatMapMany(Flux::just));
 
         log.debug("Created new product reviews: {}", createdReviewDTO);
         return createdReviewDTO;
@@ -116,19 +167,23 @@ public class ReviewService {
     }
 
     public Mono<Void> deleteProductReviewAsync(Long productId) {
-        return Mono.fromRunnable(() -> {
-            ProductOrchestrationUtil.sendMessage(streamBridge, new Event<>(Event.Type.DELETE, productId, null, null), TopicConstants.REVIEW_TOPIC);
-        }).subscribeOn(publishEventScheduler).then();
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "deleteProductReviewAsync", Mono.defer(() -> eventPublisher.send(TopicConstants.REVIEW_TOPIC,
+                        ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.DELETE, productId, null, null)))));
+    }
+
+    public Mono<Void> deleteReviewsAsync(List<Long> productIds) {
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "deleteReviewsAsync", Mono.defer(() -> eventPublisher.sendAll(TopicConstants.REVIEW_TOPIC,
+                        productIds.stream().<Message<?>>map(productId -> ProductOrchestrationUtil.buildMessage(new Event<>(Event.Type.DELETE, productId, null, null))).toList())));
     }
 
     public Mono<Void> deleteProductReview(Long productId) {
         log.debug("Deleting product reviews using product ID: {}", productId);
 
-        return webClient.delete()
+        return orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "deleteProductReview", webClient.delete()
                 .uri(getReviewServiceWithParamUrl() + productId)
                 .retrieve()
                 .bodyToMono(Void.class)
-                .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper));
+                .onErrorMap(WebClientResponseException.class, ex -> ProductOrchestrationUtil.handleWebClientException(ex, objectMapper)));
 
     }
 
@@ -0,0 +1,10 @@
+package com.microservices.core.product.orchestration.service.remote.dto;
+
+import java.util.List;
+
+public record PageDTO<T>(List<T> items, int offset, int limit, boolean hasMore, Long totalCount) {
+
+    public static <T> PageDTO<T> empty(int offset, int limit) {
+        return new PageDTO<>(List.of(), offset, limit, false, null);
+    }
+}
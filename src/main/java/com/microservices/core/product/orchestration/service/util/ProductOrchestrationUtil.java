@@ -1,38 +1,186 @@
 package com.microservices.core.product.orchestration.service.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.config.SmileCodecConfig;
+import com.microservices.core.product.orchestration.service.dto.PageInfoDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.PageDTO;
 import com.microservices.core.util.api.event.Event;
 import com.microservices.core.util.exceptions.InvalidInputException;
 import com.microservices.core.util.exceptions.NotFoundException;
 import com.microservices.core.util.http.HttpErrorInfo;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.ToIntFunction;
 
 @Slf4j
 public class ProductOrchestrationUtil {
 
     private static final String WARNING_MSG = "Unexpected error: {} with response body: {}";
 
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public static final String PARTITION_KEY_HEADER = "partitionKey";
+    public static final String EVENT_FORMAT_HEADER = "eventFormat";
+    public static final String BATCH_EVENT_FORMAT = "batch";
+    public static final String BATCH_SIZE_HEADER = "batchSize";
+    public static final String BATCH_INDEX_HEADER = "batchIndex";
+    public static final String BATCH_COUNT_HEADER = "batchCount";
+
     private ProductOrchestrationUtil() {
 
     }
 
-    public static void sendMessage(StreamBridge streamBridge, Event<Long, ?> event, String topicName) {
-        log.debug("Sending message: {} to {}", event.getEventType(), topicName);
-        Message<?> message = MessageBuilder.withPayload(event)
-                .setHeader("partitionKey", event.getKey())
+    public static Message<?> buildMessage(Event<Long, ?> event) {
+        return MessageBuilder.withPayload(event)
+                .setHeader(PARTITION_KEY_HEADER, event.getKey())
+                .build();
+    }
+
+    // The data of a batch event is the list of items, the headers let consumers tell it apart from a single item event.
+    public static Message<?> buildBatchMessage(Event.Type eventType, Long key, List<?> items, int batchIndex, int batchCount) {
+        return MessageBuilder.withPayload(new Event<>(eventType, key, items, ZonedDateTime.now()))
+                .setHeader(PARTITION_KEY_HEADER, key)
+                .setHeader(EVENT_FORMAT_HEADER, BATCH_EVENT_FORMAT)
+                .setHeader(BATCH_SIZE_HEADER, items.size())
+                .setHeader(BATCH_INDEX_HEADER, batchIndex)
+                .setHeader(BATCH_COUNT_HEADER, batchCount)
                 .build();
-        streamBridge.send(topicName, message);
+    }
+
+    // Splits the items in order into batches of at most maxSize items and maxBytes estimated bytes.
+    // An item larger than maxBytes gets a batch of its own.
+    public static <T> List<List<T>> buildBatches(List<T> items, int maxSize, int maxBytes, ToIntFunction<T> sizeEstimator) {
+        List<List<T>> batches = new ArrayList<>();
+        List<T> batch = new ArrayList<>();
+        int batchBytes = 0;
+
+        for(T item : items) {
+            int itemBytes = sizeEstimator.applyAsInt(item);
+
+            if(!batch.isEmpty() && (batch.size() >= maxSize || batchBytes + itemBytes > maxBytes)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+
+            batch.add(item);
+            batchBytes += itemBytes;
+        }
+
+        if(!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
+    // Strong ETag of an aggregate from the hash of its content. The media type is part of it, so that the JSON and Smile
+    // representations do not match each other.
+    public static String buildAggregateETag(String contentHash, MediaType mediaType) {
+        return "\"%s-%s\"".formatted(contentHash, mediaType.getSubtype());
+    }
+
+    // The SHA-256 of the content fields of an aggregate, read from the fields rather than from a serialized form. The service
+    // addresses differ between instances and the warnings carry the age of stale data, so they are left out.
+    public static String hashAggregateContent(ProductAggregateDTO aggregate) {
+        MessageDigest digest = sha256();
+
+        update(digest, aggregate.productId(), aggregate.name(), aggregate.weight());
+
+        update(digest, Objects.isNull(aggregate.reviewSummaries()) ? null : aggregate.reviewSummaries().size());
+        if(Objects.nonNull(aggregate.reviewSummaries())) {
+            aggregate.reviewSummaries().forEach(review -> update(digest, review.reviewId(), review.author(), review.subject(), review.content()));
+        }
+
+        update(digest, Objects.isNull(aggregate.recommendationSummaries()) ? null : aggregate.recommendationSummaries().size());
+        if(Objects.nonNull(aggregate.recommendationSummaries())) {
+            aggregate.recommendationSummaries().forEach(recommendation -> update(digest, recommendation.recommendationId(), recommendation.author(), recommendation.rating(), recommendation.content()));
+        }
+
+        for(PageInfoDTO page : Arrays.asList(aggregate.reviewPage(), aggregate.recommendationPage())) {
+            update(digest, Objects.isNull(page) ? null : 1);
+            if(Objects.nonNull(page)) {
+                update(digest, page.offset(), page.limit(), page.returned(), page.hasMore(), page.totalCount());
+            }
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    // Every value is prefixed with its length, and null with -1, so that adjacent values cannot shift into each other.
+    private static void update(MessageDigest digest, Object... values) {
+        for(Object value : values) {
+            byte[] bytes = Objects.isNull(value) ? new byte[0] : value.toString().getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(Objects.isNull(value) ? -1 : bytes.length).array());
+            digest.update(bytes);
+        }
+    }
+
+    // The SHA-256 of the content, URL safe Base64 encoded.
+    public static String hash(byte[] content) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256().digest(content));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform implements SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public static String getPageParams(int offset, int limit) {
+        return "&offset=%d&limit=%d".formatted(offset, limit);
+    }
+
+    // The items are expected to be fetched with one extra element, which tells whether there is a next page.
+    public static <T> PageDTO<T> buildPage(List<T> items, int offset, int limit, HttpHeaders headers) {
+        boolean hasMore = items.size() > limit;
+        Long totalCount = null;
+
+        String totalCountHeader = headers.getFirst(TOTAL_COUNT_HEADER);
+        if(Objects.nonNull(totalCountHeader)) {
+            try {
+                totalCount = Long.parseLong(totalCountHeader.trim());
+            } catch (NumberFormatException ex) {
+                log.debug("Ignoring invalid {} header: {}", TOTAL_COUNT_HEADER, totalCountHeader);
+            }
+        }
+
+        return new PageDTO<>(hasMore ? items.subList(0, limit) : items, offset, limit, hasMore, totalCount);
     }
 
     public static String getErrorMessage(ObjectMapper objectMapper, WebClientResponseException ex) {
+        // Services answering in Smile send their errors in Smile as well, the WebClient codecs decode those.
+        MediaType contentType = ex.getHeaders().getContentType();
+        if(Objects.nonNull(contentType) && SmileCodecConfig.APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            try {
+                return Objects.requireNonNull(ex.getResponseBodyAs(HttpErrorInfo.class)).getMessage();
+            } catch (RuntimeException re) {
+                return ex.getMessage();
+            }
+        }
+
         try {
             return objectMapper.readValue(ex.getResponseBodyAsString(), HttpErrorInfo.class).getMessage();
         }catch (IOException ioe) {
@@ -0,0 +1,112 @@
+package com.microservices.core.product.orchestration.service.util;
+
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.RecommendationSummaryDTO;
+import com.microservices.core.product.orchestration.service.dto.ReviewSummaryDTO;
+import com.microservices.core.product.orchestration.service.dto.ServiceAddressesDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.RecommendationDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+
+import java.util.Collection;
+import java.util.Objects;
+
+// Rough estimation of the retained heap size of the aggregate object graph, used to weigh cache entries,
+// and of the serialized size of the events, used to cap the size of event batches.
+public class SizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+    private static final int BOXED_NUMBER = 16;
+    private static final int STRING_HEADER = 40;
+    private static final int LIST_HEADER = 24;
+
+    // Field name, quotes, colon and separator of a JSON field, and the longest number a field can hold.
+    private static final int JSON_FIELD = 24;
+    private static final int JSON_NUMBER = 20;
+
+    private SizeEstimator() {
+
+    }
+
+    public static int estimate(ProductAggregateDTO productAggregateDTO) {
+        if(Objects.isNull(productAggregateDTO)) {
+            return 0;
+        }
+
+        int size = OBJECT_HEADER + 7 * REFERENCE + 2 * BOXED_NUMBER + estimate(productAggregateDTO.name());
+
+        size += estimateList(productAggregateDTO.reviewSummaries());
+        if(Objects.nonNull(productAggregateDTO.reviewSummaries())) {
+            for(ReviewSummaryDTO reviewSummaryDTO : productAggregateDTO.reviewSummaries()) {
+                size += estimate(reviewSummaryDTO);
+            }
+        }
+
+        size += estimateList(productAggregateDTO.recommendationSummaries());
+        if(Objects.nonNull(productAggregateDTO.recommendationSummaries())) {
+            for(RecommendationSummaryDTO recommendationSummaryDTO : productAggregateDTO.recommendationSummaries()) {
+                size += estimate(recommendationSummaryDTO);
+            }
+        }
+
+        size += estimateList(productAggregateDTO.warnings());
+        if(Objects.nonNull(productAggregateDTO.warnings())) {
+            for(String warning : productAggregateDTO.warnings()) {
+                size += estimate(warning);
+            }
+        }
+
+        return size + estimate(productAggregateDTO.serviceAddresses());
+    }
+
+    public static int estimate(ReviewSummaryDTO reviewSummaryDTO) {
+        if(Objects.isNull(reviewSummaryDTO)) {
+            return 0;
+        }
+        return OBJECT_HEADER + 4 * REFERENCE + BOXED_NUMBER + estimate(reviewSummaryDTO.author()) + estimate(reviewSummaryDTO.subject()) + estimate(reviewSummaryDTO.content());
+    }
+
+    public static int estimate(RecommendationSummaryDTO recommendationSummaryDTO) {
+        if(Objects.isNull(recommendationSummaryDTO)) {
+            return 0;
+        }
+        return OBJECT_HEADER + 4 * REFERENCE + 2 * BOXED_NUMBER + estimate(recommendationSummaryDTO.author()) + estimate(recommendationSummaryDTO.content());
+    }
+
+    public static int estimate(ServiceAddressesDTO serviceAddressesDTO) {
+        if(Objects.isNull(serviceAddressesDTO)) {
+            return 0;
+        }
+        return OBJECT_HEADER + 4 * REFERENCE + estimate(serviceAddressesDTO.orchestrationAddress()) + estimate(serviceAddressesDTO.productAddress())
+                + estimate(serviceAddressesDTO.reviewAddress()) + estimate(serviceAddressesDTO.recommendationAddress());
+    }
+
+    public static int estimate(String value) {
+        return Objects.isNull(value) ? 0 : STRING_HEADER + value.length() * 2;
+    }
+
+    public static int estimateSerialized(ReviewDTO reviewDTO) {
+        if(Objects.isNull(reviewDTO)) {
+            return 0;
+        }
+        return 6 * JSON_FIELD + 2 * JSON_NUMBER + estimateSerialized(reviewDTO.author()) + estimateSerialized(reviewDTO.subject())
+                + estimateSerialized(reviewDTO.content()) + estimateSerialized(reviewDTO.serviceAddress());
+    }
+
+    public static int estimateSerialized(RecommendationDTO recommendationDTO) {
+        if(Objects.isNull(recommendationDTO)) {
+            return 0;
+        }
+        return 6 * JSON_FIELD + 3 * JSON_NUMBER + estimateSerialized(recommendationDTO.author()) + estimateSerialized(recommendationDTO.content())
+                + estimateSerialized(recommendationDTO.serviceAddress());
+    }
+
+    // Assumes mostly single byte UTF-8 characters, escaping is not taken into account.
+    public static int estimateSerialized(String value) {
+        return Objects.isNull(value) ? 0 : value.length();
+    }
+
+    private static int estimateList(Collection<?> values) {
+        return Objects.isNull(values) ? 0 : LIST_HEADER + values.size() * REFERENCE;
+    }
+}
@@ -0,0 +1,129 @@
+package com.microservices.core.product.orchestration.service.view;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.remote.dto.RecommendationDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import com.microservices.core.product.orchestration.service.util.TopicConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Bound as aggregateViewEvents-in-0 to the destinations of the products, reviews and recommendations bindings, without a
+// consumer group, so that every instance receives all the events. Single events and batch envelopes are both accepted.
+@Slf4j
+@Component(AggregateViewEventConsumer.BINDING_NAME)
+@ConditionalOnProperty(name = "app.view.enabled", havingValue = "true")
+public class AggregateViewEventConsumer implements Consumer<Message<byte[]>> {
+
+    public static final String BINDING_NAME = "aggregateViewEvents";
+    public static final String EVENTS_COUNTER = "orchestration.view.events";
+
+    private static final String CREATE = "CREATE";
+    private static final String DELETE = "DELETE";
+
+    @Autowired
+    private ProductAggregateView productAggregateView;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BindingServiceProperties bindingServiceProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    public void accept(Message<byte[]> message) {
+        String topic = message.getHeaders().get(KafkaHeaders.RECEIVED_TOPIC, String.class);
+        String type = getType(topic);
+
+        try {
+            JsonNode event = objectMapper.readTree(message.getPayload());
+            String eventType = event.path("eventType").asText();
+            Long productId = event.path("key").asLong();
+            JsonNode data = event.get("data");
+
+            log.debug("Applying {} event from {} to the aggregate view for product ID: {}", eventType, topic, productId);
+
+            switch (type) {
+                case "product" -> {
+                    if(CREATE.equals(eventType)) {
+                        productAggregateView.onProductCreated(productId);
+                    } else if(DELETE.equals(eventType)) {
+                        productAggregateView.onProductDeleted(productId);
+                    }
+                }
+                case "review" -> {
+                    if(CREATE.equals(eventType)) {
+                        productAggregateView.onReviewsCreated(productId, readItems(data, ReviewDTO.class));
+                    } else if(DELETE.equals(eventType)) {
+                        productAggregateView.onReviewsDeleted(productId);
+                    }
+                }
+                case "recommendation" -> {
+                    if(CREATE.equals(eventType)) {
+                        productAggregateView.onRecommendationsCreated(productId, readItems(data, RecommendationDTO.class));
+                    } else if(DELETE.equals(eventType)) {
+                        productAggregateView.onRecommendationsDeleted(productId);
+                    }
+                }
+                default -> log.debug("Ignoring event from unexpected topic: {}", topic);
+            }
+
+            countEvent(type, "applied");
+        } catch (IOException | RuntimeException ex) {
+            // A malformed event must not stop the consumer, the affected entry is refreshed once it becomes stale.
+            log.warn("Unable to apply the event from {} to the aggregate view: {}", topic, ex.getMessage());
+            countEvent(type, "error");
+        }
+    }
+
+    private String getType(String topic) {
+        if(bindingServiceProperties.getBindingDestination(TopicConstants.PRODUCT_TOPIC).equals(topic)) {
+            return "product";
+        }
+        if(bindingServiceProperties.getBindingDestination(TopicConstants.REVIEW_TOPIC).equals(topic)) {
+            return "review";
+        }
+        if(bindingServiceProperties.getBindingDestination(TopicConstants.RECOMMENDATION_TOPIC).equals(topic)) {
+            return "recommendation";
+        }
+        return "unknown";
+    }
+
+    private <T> List<T> readItems(JsonNode data, Class<T> itemType) throws IOException {
+        List<T> items = new ArrayList<>();
+
+        if(data.isArray()) {
+            for(JsonNode item : data) {
+                items.add(objectMapper.treeToValue(item, itemType));
+            }
+        } else {
+            items.add(objectMapper.treeToValue(data, itemType));
+        }
+
+        return items;
+    }
+
+    private void countEvent(String type, String outcome) {
+        Counter.builder(EVENTS_COUNTER)
+                .description("Events applied to the local aggregate view")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
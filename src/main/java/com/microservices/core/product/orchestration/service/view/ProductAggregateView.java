@@ -0,0 +1,160 @@
+package com.microservices.core.product.orchestration.service.view;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.RecommendationDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import com.microservices.core.product.orchestration.service.util.SizeEstimator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+// Local copy of the product, reviews and recommendations of each product, seeded from a complete fan-out and kept up to
+// date by the events on the products, reviews and recommendations topics. An entry is dropped maxStaleness after the
+// fan-out that seeded it, whatever events it got since, so that a missed event is not served for longer than that.
+@Slf4j
+@Component
+public class ProductAggregateView {
+
+    public static final String VIEW_NAME = "product-aggregate-view";
+
+    @Value("${app.view.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.view.maxStaleness:PT5M}")
+    private Duration maxStaleness;
+
+    @Value("${app.view.maxWeightBytes:134217728}")
+    private long maxWeightBytes;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, Entry> view;
+
+    @PostConstruct
+    void init() {
+        view = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long productId, Entry entry) -> entry.estimateSize())
+                .expireAfter(new Expiry<Long, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Long productId, Entry entry, long currentTime) {
+                        return Math.max(0, entry.seededAtNanos() + maxStaleness.toNanos() - currentTime);
+                    }
+
+                    // Events replace the entry but keep the time it was seeded at.
+                    @Override
+                    public long expireAfterUpdate(Long productId, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(productId, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long productId, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, view, VIEW_NAME);
+
+        log.debug("Product aggregate view enabled: {}, max staleness: {}, max weight: {} bytes", enabled, maxStaleness, maxWeightBytes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Entry get(Long productId) {
+        if(!enabled || Objects.isNull(productId)) {
+            return null;
+        }
+        return view.getIfPresent(productId);
+    }
+
+    // Only complete data may seed the view, a partial review or recommendation list would be served as if it were complete.
+    public void put(Long productId, ProductDTO productDTO, List<ReviewDTO> reviews, List<RecommendationDTO> recommendations) {
+        if(!enabled || Objects.isNull(productId) || Objects.isNull(productDTO)) {
+            return;
+        }
+        view.put(productId, new Entry(productDTO, sortById(reviews, ReviewDTO::reviewId), sortById(recommendations, RecommendationDTO::recommendationId), System.nanoTime()));
+    }
+
+    public void invalidate(Long productId) {
+        if(Objects.isNull(productId)) {
+            return;
+        }
+        view.invalidate(productId);
+    }
+
+    // A product event does not seed the view. The events of its reviews and recommendations come on other topics, with no
+    // ordering against it, so some of them may already be gone. The next read seeds the entry from a complete fan-out.
+    void onProductCreated(Long productId) {
+        invalidate(productId);
+    }
+
+    void onProductDeleted(Long productId) {
+        invalidate(productId);
+    }
+
+    // Events for products that are not in the view are ignored, the view cannot tell whether it knows all their reviews.
+    void onReviewsCreated(Long productId, List<ReviewDTO> reviews) {
+        update(productId, entry -> new Entry(entry.product(), merge(entry.reviews(), reviews, ReviewDTO::reviewId), entry.recommendations(), entry.seededAtNanos()));
+    }
+
+    void onReviewsDeleted(Long productId) {
+        update(productId, entry -> new Entry(entry.product(), List.of(), entry.recommendations(), entry.seededAtNanos()));
+    }
+
+    void onRecommendationsCreated(Long productId, List<RecommendationDTO> recommendations) {
+        update(productId, entry -> new Entry(entry.product(), entry.reviews(), merge(entry.recommendations(), recommendations, RecommendationDTO::recommendationId), entry.seededAtNanos()));
+    }
+
+    void onRecommendationsDeleted(Long productId) {
+        update(productId, entry -> new Entry(entry.product(), entry.reviews(), List.of(), entry.seededAtNanos()));
+    }
+
+    private void update(Long productId, Function<Entry, Entry> updater) {
+        if(!enabled || Objects.isNull(productId)) {
+            return;
+        }
+        view.asMap().computeIfPresent(productId, (id, entry) -> updater.apply(entry));
+    }
+
+    private static <T> List<T> merge(List<T> current, Collection<T> added, Function<T, Long> idExtractor) {
+        Map<Long, T> merged = new TreeMap<>();
+        current.forEach(item -> merged.put(idExtractor.apply(item), item));
+        added.stream()
+                .filter(item -> Objects.nonNull(idExtractor.apply(item)))
+                .forEach(item -> merged.put(idExtractor.apply(item), item));
+        return List.copyOf(merged.values());
+    }
+
+    private static <T> List<T> sortById(List<T> items, Function<T, Long> idExtractor) {
+        return merge(List.of(), Objects.isNull(items) ? List.of() : items, idExtractor);
+    }
+
+    public record Entry(ProductDTO product, List<ReviewDTO> reviews, List<RecommendationDTO> recommendations, long seededAtNanos) {
+
+        int estimateSize() {
+            return SizeEstimator.estimateSerialized(product.getName()) + SizeEstimator.estimateSerialized(product.getServiceAddress())
+                    + reviews.stream().mapToInt(SizeEstimator::estimateSerialized).sum()
+                    + recommendations.stream().mapToInt(SizeEstimator::estimateSerialized).sum();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateRequestCoalescerTest {
+
+    private static final Long COMMON_ID = 1L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AggregateRequestCoalescer aggregateRequestCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        aggregateRequestCoalescer = new AggregateRequestCoalescer();
+        ReflectionTestUtils.setField(aggregateRequestCoalescer, "enabled", true);
+        ReflectionTestUtils.setField(aggregateRequestCoalescer, "meterRegistry", meterRegistry);
+        aggregateRequestCoalescer.init();
+    }
+
+    @Test
+    void concurrentCallersShareOneExecutionTest() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Sinks.One<ProductAggregateDTO> sink = Sinks.one();
+        ProductAggregateDTO productAggregateDTO = ProductAggregateDTO.builder().productId(COMMON_ID).build();
+
+        Mono<ProductAggregateDTO> first = aggregateRequestCoalescer.coalesce(COMMON_ID, () -> sink.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet()));
+        Mono<ProductAggregateDTO> second = aggregateRequestCoalescer.coalesce(COMMON_ID, () -> sink.asMono().doOnSubscribe(s -> subscriptions.incrementAndGet()));
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> sink.tryEmitValue(productAggregateDTO))
+                .assertNext(tuple -> {
+                    assertSame(productAggregateDTO, tuple.getT1());
+                    assertSame(productAggregateDTO, tuple.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, subscriptions.get());
+        assertEquals(1.0, meterRegistry.get("orchestration.aggregate.coalesced").counter().count());
+    }
+
+    @Test
+    void errorIsDeliveredToAllCallersAndNotRetainedTest() {
+        Sinks.One<ProductAggregateDTO> sink = Sinks.one();
+
+        Mono<ProductAggregateDTO> first = aggregateRequestCoalescer.coalesce(COMMON_ID, sink::asMono);
+        Mono<ProductAggregateDTO> second = aggregateRequestCoalescer.coalesce(COMMON_ID, sink::asMono);
+
+        StepVerifier.create(Mono.zipDelayError(first, second))
+                .then(() -> sink.tryEmitError(new IllegalStateException("downstream failure")))
+                .verifyError(IllegalStateException.class);
+
+        StepVerifier.create(aggregateRequestCoalescer.coalesce(COMMON_ID, () -> Mono.just(ProductAggregateDTO.builder().productId(COMMON_ID).build())))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void cancellationOfOneCallerDoesNotCancelOthersTest() {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Sinks.One<ProductAggregateDTO> sink = Sinks.one();
+        ProductAggregateDTO productAggregateDTO = ProductAggregateDTO.builder().productId(COMMON_ID).build();
+
+        Mono<ProductAggregateDTO> source = sink.asMono().doOnCancel(() -> cancelled.set(true));
+
+        Disposable first = aggregateRequestCoalescer.coalesce(COMMON_ID, () -> source).subscribe();
+        Mono<ProductAggregateDTO> second = aggregateRequestCoalescer.coalesce(COMMON_ID, () -> source);
+
+        StepVerifier.create(second)
+                .then(first::dispose)
+                .then(() -> assertFalse(cancelled.get()))
+                .then(() -> sink.tryEmitValue(productAggregateDTO))
+                .expectNext(productAggregateDTO)
+                .verifyComplete();
+    }
+
+    @Test
+    void cancellationOfAllCallersCancelsExecutionTest() {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Sinks.One<ProductAggregateDTO> sink = Sinks.one();
+
+        Disposable first = aggregateRequestCoalescer.coalesce(COMMON_ID, () -> sink.asMono().doOnCancel(() -> cancelled.set(true))).subscribe();
+
+        first.dispose();
+
+        assertTrue(cancelled.get());
+    }
+}
@@ -0,0 +1,160 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LastKnownGoodStoreTest {
+
+    private static final String SERVICE = "review";
+
+    private static final Long COMMON_ID = 1L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LastKnownGoodStore lastKnownGoodStore;
+
+    @BeforeEach
+    void setUp() {
+        lastKnownGoodStore = new LastKnownGoodStore();
+        ReflectionTestUtils.setField(lastKnownGoodStore, "enabled", true);
+        ReflectionTestUtils.setField(lastKnownGoodStore, "softTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(lastKnownGoodStore, "maxAge", Duration.ofHours(1));
+        ReflectionTestUtils.setField(lastKnownGoodStore, "maxEntries", 100L);
+        ReflectionTestUtils.setField(lastKnownGoodStore, "meterRegistry", meterRegistry);
+        lastKnownGoodStore.init();
+    }
+
+    @Test
+    void putAndGetTest() {
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, "page-1", "first page");
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, "page-2", "second page");
+
+        assertEquals("first page", get(SERVICE, COMMON_ID, "page-1").orElseThrow().value());
+        assertEquals("second page", get(SERVICE, COMMON_ID, "page-2").orElseThrow().value());
+        assertTrue(get("product", COMMON_ID, "page-1").isEmpty());
+        assertTrue(get(SERVICE, 2L, "page-1").isEmpty());
+
+        assertEquals(2, meterRegistry.get(LastKnownGoodStore.SERVED_COUNTER).tag("service", SERVICE).counter().count());
+    }
+
+    @Test
+    void invalidateRemovesAllEntriesOfProductTest() {
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, "page-1", "first page");
+        lastKnownGoodStore.put("product", COMMON_ID, null, "product");
+        lastKnownGoodStore.put(SERVICE, 2L, "page-1", "other product");
+
+        lastKnownGoodStore.invalidate(COMMON_ID);
+
+        assertTrue(get(SERVICE, COMMON_ID, "page-1").isEmpty());
+        assertTrue(get("product", COMMON_ID, null).isEmpty());
+        assertTrue(get(SERVICE, 2L, "page-1").isPresent());
+    }
+
+    @Test
+    void entryPastMaxAgeIsNotServedTest() {
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, "page-1", "first page");
+        ReflectionTestUtils.setField(lastKnownGoodStore, "maxAge", Duration.ZERO);
+
+        // A later write of another entry of the same product does not keep the older one alive.
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, "page-2", "second page");
+
+        assertTrue(get(SERVICE, COMMON_ID, "page-1").isEmpty());
+    }
+
+    @Test
+    void unchangedValueIsNotWrittenAgainTest() {
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, null, "value");
+        LastKnownGoodStore.Entry<String> stored = get(SERVICE, COMMON_ID, null).orElseThrow();
+
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, null, "value");
+        assertSame(stored, get(SERVICE, COMMON_ID, null).orElseThrow());
+
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, null, "changed");
+        assertEquals("changed", get(SERVICE, COMMON_ID, null).orElseThrow().value());
+
+        // Past the soft TTL, the same value is written again.
+        ReflectionTestUtils.setField(lastKnownGoodStore, "softTtl", Duration.ZERO);
+        LastKnownGoodStore.Entry<String> changed = get(SERVICE, COMMON_ID, null).orElseThrow();
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, null, "changed");
+        assertNotSame(changed, get(SERVICE, COMMON_ID, null).orElseThrow());
+    }
+
+    @Test
+    void maxEntriesCountsEntriesOfAllProductsTest() {
+        ReflectionTestUtils.setField(lastKnownGoodStore, "maxEntries", 2L);
+        lastKnownGoodStore.init();
+
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, "page-1", "first page");
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, "page-2", "second page");
+        lastKnownGoodStore.put(SERVICE, 2L, "page-1", "other product");
+
+        Cache<Long, ?> store = (Cache<Long, ?>) ReflectionTestUtils.getField(lastKnownGoodStore, "store");
+        store.cleanUp();
+        assertTrue(store.policy().eviction().orElseThrow().weightedSize().orElseThrow() <= 2);
+    }
+
+    @Test
+    void entryPastSoftTtlIsServedAndRefreshedTest() {
+        ReflectionTestUtils.setField(lastKnownGoodStore, "softTtl", Duration.ZERO);
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, null, "old");
+
+        Optional<LastKnownGoodStore.Entry<String>> entry = lastKnownGoodStore.get(SERVICE, COMMON_ID, null, () -> Mono.just("new"));
+
+        assertEquals("old", entry.orElseThrow().value());
+        assertEquals("new", get(SERVICE, COMMON_ID, null).orElseThrow().value());
+    }
+
+    @Test
+    void refreshRunsOnceAtATimeTest() {
+        ReflectionTestUtils.setField(lastKnownGoodStore, "softTtl", Duration.ZERO);
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, null, "old");
+
+        AtomicInteger refreshes = new AtomicInteger();
+        Sinks.One<String> refresh = Sinks.one();
+
+        lastKnownGoodStore.get(SERVICE, COMMON_ID, null, () -> {
+            refreshes.incrementAndGet();
+            return refresh.asMono();
+        });
+        lastKnownGoodStore.get(SERVICE, COMMON_ID, null, () -> {
+            refreshes.incrementAndGet();
+            return refresh.asMono();
+        });
+
+        assertEquals(1, refreshes.get());
+
+        // An empty refresh keeps the stored value.
+        refresh.tryEmitEmpty();
+        assertEquals("old", lastKnownGoodStore.get(SERVICE, COMMON_ID, null, () -> {
+            refreshes.incrementAndGet();
+            return Mono.error(new IllegalStateException("Service unavailable"));
+        }).orElseThrow().value());
+
+        assertEquals(2, refreshes.get());
+        assertEquals("old", get(SERVICE, COMMON_ID, null).orElseThrow().value());
+    }
+
+    @Test
+    void disabledStoreTest() {
+        ReflectionTestUtils.setField(lastKnownGoodStore, "enabled", false);
+
+        lastKnownGoodStore.put(SERVICE, COMMON_ID, null, "value");
+
+        assertTrue(get(SERVICE, COMMON_ID, null).isEmpty());
+    }
+
+    private Optional<LastKnownGoodStore.Entry<String>> get(String service, Long productId, Object variant) {
+        return lastKnownGoodStore.get(service, productId, variant, Mono::empty);
+    }
+}
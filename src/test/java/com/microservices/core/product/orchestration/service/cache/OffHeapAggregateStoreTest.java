@@ -0,0 +1,92 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapAggregateStoreTest {
+
+    private static final int SLAB_SIZE = 4096;
+
+    @Test
+    void putAndGetTest() {
+        OffHeapAggregateStore store = new OffHeapAggregateStore(4 * SLAB_SIZE, SLAB_SIZE, 64, TimeUnit.MINUTES.toNanos(1));
+
+        assertTrue(store.put(1L, bytes("first"), "first-hash"));
+        assertTrue(store.put(2L, bytes("second"), "hash"));
+
+        assertArrayEquals(bytes("first"), store.get(1L).json());
+        assertEquals("first-hash", store.get(1L).contentHash());
+        assertArrayEquals(bytes("second"), store.get(2L).json());
+        assertNull(store.get(3L));
+
+        assertTrue(store.put(1L, bytes("replaced"), "hash"));
+        assertArrayEquals(bytes("replaced"), store.get(1L).json());
+
+        store.invalidate(2L);
+        assertNull(store.get(2L));
+
+        OffHeapAggregateStore.Stats stats = store.getStats();
+        assertEquals(1, stats.entries());
+        assertEquals(4, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals("replaced".length(), stats.usedBytes());
+        assertEquals(SLAB_SIZE, stats.allocatedBytes());
+        assertTrue(stats.fragmentation() > 0);
+    }
+
+    @Test
+    void evictOldestOfSizeClassTest() {
+        // A single slab of 4 chunks of 1 KB.
+        OffHeapAggregateStore store = new OffHeapAggregateStore(SLAB_SIZE, SLAB_SIZE, 1024, TimeUnit.MINUTES.toNanos(1));
+
+        for(long key = 1; key <= 5; key++) {
+            assertTrue(store.put(key, filled(1000, (byte) key), "hash"));
+        }
+
+        assertNull(store.get(1L));
+        for(long key = 2; key <= 5; key++) {
+            assertArrayEquals(filled(1000, (byte) key), store.get(key).json());
+        }
+        assertEquals(1, store.getStats().evictions());
+    }
+
+    @Test
+    void rejectWhenNoMemoryLeftTest() {
+        OffHeapAggregateStore store = new OffHeapAggregateStore(SLAB_SIZE, SLAB_SIZE, 1024, TimeUnit.MINUTES.toNanos(1));
+
+        assertFalse(store.put(1L, new byte[SLAB_SIZE + 1], "hash"));
+
+        // The only slab belongs to the 1 KB size class, larger entries have nowhere to go.
+        assertTrue(store.put(2L, filled(1000, (byte) 2), "hash"));
+        assertFalse(store.put(3L, filled(2000, (byte) 3), "hash"));
+
+        assertEquals(2, store.getStats().rejections());
+    }
+
+    @Test
+    void expiredEntryIsRemovedTest() throws InterruptedException {
+        OffHeapAggregateStore store = new OffHeapAggregateStore(SLAB_SIZE, SLAB_SIZE, 64, TimeUnit.MILLISECONDS.toNanos(20));
+
+        store.put(1L, bytes("value"), "hash");
+        Thread.sleep(50);
+
+        assertNull(store.get(1L));
+        assertEquals(0, store.getStats().entries());
+        assertEquals(1, store.getStats().expirations());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] filled(int length, byte value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, value);
+        return bytes;
+    }
+}
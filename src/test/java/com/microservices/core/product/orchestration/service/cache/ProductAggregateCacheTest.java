@@ -0,0 +1,96 @@
+package com.microservices.core.product.orchestration.service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.TaggedProductAggregate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductAggregateCacheTest {
+
+    private static final Long COMMON_ID = 1L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductAggregateCache productAggregateCache;
+
+    @BeforeEach
+    void setUp() {
+        productAggregateCache = new ProductAggregateCache();
+        ReflectionTestUtils.setField(productAggregateCache, "enabled", true);
+        ReflectionTestUtils.setField(productAggregateCache, "maxWeightBytes", 1024L * 1024L);
+        ReflectionTestUtils.setField(productAggregateCache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(productAggregateCache, "meterRegistry", meterRegistry);
+        productAggregateCache.init();
+    }
+
+    @Test
+    void putAndGetTest() {
+        TaggedProductAggregate productAggregate = buildProductAggregate(COMMON_ID);
+
+        productAggregateCache.put(COMMON_ID, productAggregate);
+
+        assertEquals(productAggregate.aggregate(), productAggregateCache.get(COMMON_ID));
+        assertNull(productAggregateCache.get(2L));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ProductAggregateCache.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ProductAggregateCache.CACHE_NAME).tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void offHeapStorageKeepsContentHashTest() {
+        ReflectionTestUtils.setField(productAggregateCache, "storage", "offheap");
+        ReflectionTestUtils.setField(productAggregateCache, "slabSize", 64 * 1024);
+        ReflectionTestUtils.setField(productAggregateCache, "minChunkSize", 512);
+        ReflectionTestUtils.setField(productAggregateCache, "objectMapper", new ObjectMapper());
+        productAggregateCache.init();
+
+        TaggedProductAggregate productAggregate = buildProductAggregate(COMMON_ID);
+        productAggregateCache.put(COMMON_ID, productAggregate);
+
+        assertEquals(productAggregate, productAggregateCache.getTagged(COMMON_ID));
+        assertEquals(productAggregate.contentHash(), productAggregateCache.getJson(COMMON_ID).contentHash());
+    }
+
+    @Test
+    void invalidateTest() {
+        productAggregateCache.put(COMMON_ID, buildProductAggregate(COMMON_ID));
+
+        productAggregateCache.invalidate(COMMON_ID);
+
+        assertNull(productAggregateCache.get(COMMON_ID));
+    }
+
+    @Test
+    void fallbackProductIsNotCachedTest() {
+        productAggregateCache.put(COMMON_ID, buildProductAggregate(0L));
+
+        assertNull(productAggregateCache.get(COMMON_ID));
+    }
+
+    @Test
+    void disabledCacheTest() {
+        ReflectionTestUtils.setField(productAggregateCache, "enabled", false);
+
+        productAggregateCache.put(COMMON_ID, buildProductAggregate(COMMON_ID));
+
+        assertNull(productAggregateCache.get(COMMON_ID));
+    }
+
+    private TaggedProductAggregate buildProductAggregate(Long productId) {
+        return TaggedProductAggregate.of(ProductAggregateDTO.builder()
+                .productId(productId)
+                .name("NAME")
+                .weight(COMMON_ID.intValue())
+                .reviewSummaries(List.of())
+                .recommendationSummaries(List.of())
+                .warnings(List.of())
+                .build());
+    }
+}
@@ -0,0 +1,68 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingJwtDecoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger verifications = new AtomicInteger();
+
+    @Test
+    void verifiedTokenIsCachedTest() {
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(token -> verify(token, Instant.now().plusSeconds(3600)), 100, Duration.ofMinutes(5), meterRegistry);
+
+        StepVerifier.create(cachingJwtDecoder.decode("token-1")).expectNextMatches(jwt -> jwt.getTokenValue().equals("token-1")).verifyComplete();
+        StepVerifier.create(cachingJwtDecoder.decode("token-1")).expectNextMatches(jwt -> jwt.getTokenValue().equals("token-1")).verifyComplete();
+        StepVerifier.create(cachingJwtDecoder.decode("token-2")).expectNextCount(1).verifyComplete();
+
+        assertEquals(2, verifications.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME).tag("result", "hit").functionCounter().count());
+        assertEquals(2, meterRegistry.get(CachingJwtDecoder.VERIFICATION_TIMER).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void expiredTokenIsNotCachedTest() {
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(token -> verify(token, Instant.now().minusSeconds(1)), 100, Duration.ofMinutes(5), meterRegistry);
+
+        StepVerifier.create(cachingJwtDecoder.decode("token")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cachingJwtDecoder.decode("token")).expectNextCount(1).verifyComplete();
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void rejectedTokenIsNotCachedTest() {
+        CachingJwtDecoder cachingJwtDecoder = new CachingJwtDecoder(token -> {
+            verifications.incrementAndGet();
+            return Mono.error(new BadJwtException("Invalid signature"));
+        }, 100, Duration.ofMinutes(5), meterRegistry);
+
+        StepVerifier.create(cachingJwtDecoder.decode("token")).verifyError(BadJwtException.class);
+        StepVerifier.create(cachingJwtDecoder.decode("token")).verifyError(BadJwtException.class);
+
+        assertEquals(2, verifications.get());
+        assertEquals(2, meterRegistry.get(CachingJwtDecoder.VERIFICATION_TIMER).tag("outcome", "error").timer().count());
+    }
+
+    private Mono<Jwt> verify(String token, Instant expiresAt) {
+        verifications.incrementAndGet();
+        return Mono.just(Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("test")
+                .issuedAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .build());
+    }
+}
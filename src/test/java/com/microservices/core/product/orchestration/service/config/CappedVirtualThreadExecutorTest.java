@@ -0,0 +1,112 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CappedVirtualThreadExecutorTest {
+
+    private final CappedVirtualThreadExecutor executor = new CappedVirtualThreadExecutor("test", 2, 8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void tasksOverCapWaitInsteadOfBeingRejectedTest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(10);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        for(int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        waitFor(() -> running.get() == 2 && executor.getWaiting() == 8);
+
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, executor.getWaiting());
+    }
+
+    @Test
+    void tasksOverMaxWaitingAreRejectedTest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+
+        for(int i = 0; i < 10; i++) {
+            executor.execute(() -> awaitQuietly(release));
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+
+        release.countDown();
+        waitFor(() -> executor.getWaiting() == 0);
+
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void waitingTaskRunsWhenInterruptedTest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        executor.execute(() -> awaitQuietly(release));
+        executor.execute(() -> awaitQuietly(release));
+        waitFor(() -> executor.getWaiting() == 0);
+
+        executor.execute(() -> {
+            if(Thread.currentThread().isInterrupted()) {
+                interrupted.countDown();
+            }
+        });
+
+        waitFor(() -> executor.getWaiting() == 1);
+        executor.shutdownNow();
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void tasksRunOnVirtualThreadsTest() throws Exception {
+        assertTrue(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while(!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalRequestFilterTest {
+
+    private static final URI URL = URI.create("http://review-service/review?productId=1");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ConditionalRequestFilter conditionalRequestFilter = new ConditionalRequestFilter("review", 1024 * 1024, 64, meterRegistry);
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+
+    @Test
+    void notModifiedIsAnsweredWithKeptBodyTest() {
+        ExchangeFunction next = exchange(buildResponse("\"v1\"", "[{\"reviewId\":1}]"), ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        assertEquals("[{\"reviewId\":1}]", get(HttpMethod.GET, next));
+        assertNull(requests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+
+        ClientResponse response = conditionalRequestFilter.filter(buildRequest(HttpMethod.GET), next).block();
+        assertEquals(HttpStatus.OK, response.statusCode());
+        assertEquals("\"v1\"", response.headers().asHttpHeaders().getETag());
+        assertEquals("[{\"reviewId\":1}]", response.bodyToMono(String.class).block());
+        assertEquals("\"v1\"", requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+
+        assertEquals(1, getCount("not_modified"));
+    }
+
+    @Test
+    void modifiedResponseReplacesKeptBodyTest() {
+        ExchangeFunction next = exchange(buildResponse("\"v1\"", "[]"), buildResponse("\"v2\"", "[{\"reviewId\":2}]"), ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        assertEquals("[]", get(HttpMethod.GET, next));
+        assertEquals("[{\"reviewId\":2}]", get(HttpMethod.GET, next));
+        assertEquals("[{\"reviewId\":2}]", get(HttpMethod.GET, next));
+
+        assertEquals("\"v2\"", requests.get(2).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(1, getCount("modified"));
+        assertEquals(1, getCount("not_modified"));
+    }
+
+    @Test
+    void responseWithoutETagIsNotKeptTest() {
+        ExchangeFunction next = exchange(buildResponse(null, "[]"), buildResponse(null, "[]"));
+
+        get(HttpMethod.GET, next);
+        get(HttpMethod.GET, next);
+
+        assertNull(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void otherMethodsPassThroughTest() {
+        ExchangeFunction next = exchange(buildResponse("\"v1\"", "[]"), buildResponse("\"v1\"", "[]"));
+
+        get(HttpMethod.POST, next);
+        get(HttpMethod.GET, next);
+
+        assertNull(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void bodyIsPassedOnAsItArrivesTest() {
+        Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+        ExchangeFunction next = exchange(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.ETAG, "\"v1\"")
+                .body(body.asFlux())
+                .build(), ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+
+        ClientResponse response = conditionalRequestFilter.filter(buildRequest(HttpMethod.GET), next).block();
+
+        StepVerifier.create(response.bodyToFlux(DataBuffer.class).map(buffer -> buffer.toString(StandardCharsets.UTF_8)))
+                .then(() -> body.tryEmitNext(wrap("[1,")))
+                .expectNext("[1,")
+                .then(() -> {
+                    body.tryEmitNext(wrap("2]"));
+                    body.tryEmitComplete();
+                })
+                .expectNext("2]")
+                .verifyComplete();
+
+        assertEquals("[1,2]", get(HttpMethod.GET, next));
+        assertEquals("\"v1\"", requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void oversizedBodyIsNotKeptTest() {
+        String body = "[" + "{\"reviewId\":1},".repeat(10) + "{\"reviewId\":2}]";
+        ExchangeFunction next = exchange(buildResponse("\"v1\"", body), buildResponse("\"v1\"", body));
+
+        assertEquals(body, get(HttpMethod.GET, next));
+        get(HttpMethod.GET, next);
+
+        assertNull(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void streamingRequestsPassThroughTest() {
+        ExchangeFunction next = exchange(buildResponse("\"v1\"", "{}"), buildResponse("\"v1\"", "{}"));
+
+        conditionalRequestFilter.filter(buildRequest(HttpMethod.GET, MediaType.APPLICATION_NDJSON), next).block();
+        conditionalRequestFilter.filter(buildRequest(HttpMethod.GET, MediaType.APPLICATION_NDJSON), next).block();
+
+        assertNull(requests.get(1).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    private String get(HttpMethod method, ExchangeFunction next) {
+        return conditionalRequestFilter.filter(buildRequest(method), next)
+                .flatMap(response -> response.bodyToMono(String.class))
+                .block();
+    }
+
+    private ExchangeFunction exchange(ClientResponse... responses) {
+        Iterator<ClientResponse> iterator = List.of(responses).iterator();
+
+        return request -> {
+            requests.add(request);
+            return Mono.just(iterator.next());
+        };
+    }
+
+    private double getCount(String result) {
+        return meterRegistry.get(ConditionalRequestFilter.CONDITIONAL_COUNTER).tag("service", "review").tag("result", result).counter().count();
+    }
+
+    private static ClientRequest buildRequest(HttpMethod method) {
+        return buildRequest(method, MediaType.APPLICATION_JSON);
+    }
+
+    private static ClientRequest buildRequest(HttpMethod method, MediaType accept) {
+        return ClientRequest.create(method, URL).header(HttpHeaders.ACCEPT, accept.toString()).build();
+    }
+
+    private static DataBuffer wrap(String content) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ClientResponse buildResponse(String eTag, String body) {
+        ClientResponse.Builder builder = ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+
+        if(eTag != null) {
+            builder.header(HttpHeaders.ETAG, eTag);
+        }
+
+        return builder.body(body).build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshingJwkSourceTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final AtomicReference<JWKSet> publishedJwkSet = new AtomicReference<>();
+
+    private RefreshingJwkSource refreshingJwkSource;
+
+    @AfterEach
+    void tearDown() {
+        refreshingJwkSource.close();
+    }
+
+    @Test
+    void keysArePrefetchedTest() throws JOSEException {
+        RSAKey key = generateKey("key-1");
+        publishedJwkSet.set(new JWKSet(key.toPublicJWK()));
+        refreshingJwkSource = buildJwkSource(Duration.ZERO);
+
+        assertEquals(0, loads.get());
+        refreshingJwkSource.start();
+        assertEquals(1, loads.get());
+
+        assertEquals(List.of("key-1"), getKeyIds("key-1"));
+        assertEquals(List.of("key-1"), getKeyIds("key-1"));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void unknownKeyIdFailsAndReloadsKeysTest() throws JOSEException {
+        publishedJwkSet.set(new JWKSet(generateKey("key-1").toPublicJWK()));
+        refreshingJwkSource = buildJwkSource(Duration.ZERO);
+        refreshingJwkSource.start();
+
+        publishedJwkSet.set(new JWKSet(List.of(generateKey("key-1").toPublicJWK(), generateKey("key-2").toPublicJWK())));
+
+        // The token is not held until the keys are reloaded, the next one finds the new key.
+        assertTrue(getKeyIds("key-2").isEmpty());
+        assertEquals(2, loads.get());
+        assertEquals(List.of("key-2"), getKeyIds("key-2"));
+    }
+
+    @Test
+    void unknownKeyIdWithinMinRefreshIntervalTest() throws JOSEException {
+        publishedJwkSet.set(new JWKSet(generateKey("key-1").toPublicJWK()));
+        refreshingJwkSource = buildJwkSource(Duration.ofMinutes(1));
+        refreshingJwkSource.start();
+
+        assertTrue(getKeyIds("key-2").isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedPrefetchIsRetriedOnFirstTokenTest() throws JOSEException {
+        refreshingJwkSource = buildJwkSource(Duration.ZERO);
+        refreshingJwkSource.start();
+        assertEquals(1, loads.get());
+
+        publishedJwkSet.set(new JWKSet(generateKey("key-1").toPublicJWK()));
+
+        assertTrue(getKeyIds("key-1").isEmpty());
+        assertEquals(List.of("key-1"), getKeyIds("key-1"));
+        assertEquals(2, loads.get());
+    }
+
+    private RefreshingJwkSource buildJwkSource(Duration minRefreshInterval) {
+        Mono<String> loader = Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            return Objects.requireNonNull(publishedJwkSet.get(), "Authorization server unavailable").toString();
+        });
+        return new RefreshingJwkSource(loader, Duration.ofHours(1), minRefreshInterval);
+    }
+
+    private List<String> getKeyIds(String keyId) {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(keyId).build(), new JWTClaimsSet.Builder().subject("test").build());
+
+        return refreshingJwkSource.getKeys(jwt).map(JWK::getKeyID).collectList().block();
+    }
+
+    private static RSAKey generateKey(String keyId) throws JOSEException {
+        return new RSAKeyGenerator(2048).keyID(keyId).generate();
+    }
+}
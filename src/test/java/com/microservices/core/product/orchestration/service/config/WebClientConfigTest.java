@@ -0,0 +1,55 @@
+package com.microservices.core.product.orchestration.service.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebClientConfigTest {
+
+    private static final URI URL = URI.create("http://product-service/product/1");
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+
+    private final ExchangeFunction next = request -> {
+        requests.add(request);
+        return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+    };
+
+    @Test
+    void getWithoutAcceptPrefersSmileTest() {
+        exchange(ClientRequest.create(HttpMethod.GET, URL).build());
+
+        assertEquals(List.of(SmileCodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON.withQuality(0.9)), requests.get(0).headers().getAccept());
+    }
+
+    @Test
+    void explicitAcceptIsKeptTest() {
+        exchange(ClientRequest.create(HttpMethod.GET, URL).header("Accept", MediaType.APPLICATION_JSON_VALUE).build());
+
+        assertEquals(List.of(MediaType.APPLICATION_JSON), requests.get(0).headers().getAccept());
+    }
+
+    @Test
+    void onlyGetPrefersSmileTest() {
+        exchange(ClientRequest.create(HttpMethod.POST, URL).build());
+        exchange(ClientRequest.create(HttpMethod.DELETE, URL).build());
+
+        assertTrue(requests.get(0).headers().getAccept().isEmpty());
+        assertTrue(requests.get(1).headers().getAccept().isEmpty());
+    }
+
+    private void exchange(ClientRequest request) {
+        WebClientConfig.preferSmile(request, next).block();
+    }
+}
@@ -0,0 +1,135 @@
+package com.microservices.core.product.orchestration.service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.microservices.core.product.orchestration.service.cache.SerializedAggregate;
+import com.microservices.core.product.orchestration.service.config.SmileCodecConfig;
+import com.microservices.core.product.orchestration.service.dto.AggregatePage;
+import com.microservices.core.product.orchestration.service.dto.AggregateSection;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.TaggedProductAggregate;
+import com.microservices.core.product.orchestration.service.remote.IntegrationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductOrchestrationControllerTest {
+
+    private static final Long PRODUCT_ID = 1L;
+
+    private static final AggregatePage PAGE = new AggregatePage(0, 10);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    private final IntegrationService integrationService = mock(IntegrationService.class);
+
+    private final ProductAggregateDTO productAggregateDTO = ProductAggregateDTO.builder().productId(PRODUCT_ID).name("name").weight(1).build();
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        ProductOrchestrationController controller = new ProductOrchestrationController();
+        ReflectionTestUtils.setField(controller, "integrationService", integrationService);
+        ReflectionTestUtils.setField(controller, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(controller, "smileEncoder", new Jackson2SmileEncoder(smileMapper));
+        ReflectionTestUtils.setField(controller, "batchMaxSize", 100);
+
+        when(integrationService.getAggregatePage(any(), any())).thenReturn(PAGE);
+        when(integrationService.getCachedProductAggregateJson(anyLong(), any(), any())).thenReturn(null);
+        when(integrationService.getTaggedProductAggregate(PRODUCT_ID, AggregateSection.ALL, PAGE)).thenReturn(Mono.just(TaggedProductAggregate.of(productAggregateDTO)));
+
+        client = WebTestClient.bindToController(controller).build();
+    }
+
+    @Test
+    void jsonIsServedWhenAcceptedTest() throws Exception {
+        EntityExchangeResult<byte[]> result = get(MediaType.APPLICATION_JSON_VALUE);
+
+        assertEquals(MediaType.APPLICATION_JSON, result.getResponseHeaders().getContentType());
+        assertEquals(productAggregateDTO, objectMapper.readValue(result.getResponseBody(), ProductAggregateDTO.class));
+    }
+
+    @Test
+    void smileIsServedWhenAcceptedTest() throws Exception {
+        EntityExchangeResult<byte[]> result = get(SmileCodecConfig.APPLICATION_SMILE_VALUE);
+
+        assertEquals(SmileCodecConfig.APPLICATION_SMILE, result.getResponseHeaders().getContentType());
+        assertEquals(productAggregateDTO, smileMapper.readValue(result.getResponseBody(), ProductAggregateDTO.class));
+    }
+
+    @Test
+    void highestQualityMediaTypeWinsTest() {
+        assertEquals(SmileCodecConfig.APPLICATION_SMILE, get("application/json;q=0.9, application/x-jackson-smile").getResponseHeaders().getContentType());
+        assertEquals(MediaType.APPLICATION_JSON, get("application/x-jackson-smile;q=0.5, application/json").getResponseHeaders().getContentType());
+    }
+
+    @Test
+    void wildcardKeepsJsonTest() {
+        // A client that accepts anything may not be able to read Smile, so it only gets it when asking for it.
+        assertEquals(MediaType.APPLICATION_JSON, get(MediaType.ALL_VALUE).getResponseHeaders().getContentType());
+    }
+
+    @Test
+    void eTagDiffersByMediaTypeTest() {
+        EntityExchangeResult<byte[]> json = get(MediaType.APPLICATION_JSON_VALUE);
+        EntityExchangeResult<byte[]> smile = get(SmileCodecConfig.APPLICATION_SMILE_VALUE);
+
+        assertNotNull(json.getResponseHeaders().getETag());
+        assertFalse(json.getResponseHeaders().getETag().startsWith("W/"));
+        assertNotEquals(json.getResponseHeaders().getETag(), smile.getResponseHeaders().getETag());
+        assertTrue(smile.getResponseHeaders().getVary().contains(HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void cachedJsonIsServedWithItsStoredETagTest() {
+        byte[] json = "{\"productId\":1}".getBytes(StandardCharsets.UTF_8);
+        when(integrationService.getCachedProductAggregateJson(anyLong(), any(), any())).thenReturn(new SerializedAggregate(json, "content-hash"));
+
+        EntityExchangeResult<byte[]> result = get(MediaType.APPLICATION_JSON_VALUE);
+
+        assertArrayEquals(json, result.getResponseBody());
+        assertEquals("\"content-hash-json\"", result.getResponseHeaders().getETag());
+        verify(integrationService, never()).getTaggedProductAggregate(anyLong(), any(), any());
+    }
+
+    @Test
+    void matchingETagIsNotModifiedTest() {
+        String eTag = get(MediaType.APPLICATION_JSON_VALUE).getResponseHeaders().getETag();
+
+        client.get()
+                .uri("/product-orchestration/{productId}", PRODUCT_ID)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    private EntityExchangeResult<byte[]> get(String accept) {
+        return client.get()
+                .uri("/product-orchestration/{productId}", PRODUCT_ID)
+                .header(HttpHeaders.ACCEPT, accept)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .returnResult();
+    }
+}
@@ -0,0 +1,41 @@
+package com.microservices.core.product.orchestration.service.dto;
+
+import com.microservices.core.util.exceptions.InvalidInputException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AggregateSectionTest {
+
+    @Test
+    void noSelectionMeansAllSectionsTest() {
+        assertEquals(AggregateSection.ALL, AggregateSection.parse(null));
+        assertEquals(AggregateSection.ALL, AggregateSection.parse(List.of()));
+        assertEquals(AggregateSection.ALL, AggregateSection.parse(List.of(" ")));
+        assertTrue(AggregateSection.isComplete(AggregateSection.parse(List.of("product", "reviews", "recommendations"))));
+    }
+
+    @Test
+    void selectionIgnoresCaseAndBlanksTest() {
+        assertEquals(Set.of(AggregateSection.PRODUCT, AggregateSection.REVIEWS), AggregateSection.parse(Arrays.asList(" Product", "REVIEWS", "", null)));
+        assertFalse(AggregateSection.isComplete(AggregateSection.parse(List.of("reviews"))));
+    }
+
+    @Test
+    void unknownSectionTest() {
+        InvalidInputException ex = assertThrows(InvalidInputException.class, () -> AggregateSection.parse(List.of("product", "ratings")));
+
+        assertTrue(ex.getMessage().contains("ratings"));
+    }
+
+    @Test
+    void nestedSelectionTest() {
+        // Sections are the finest selection, a field within a section is rejected rather than widened to its section.
+        assertThrows(InvalidInputException.class, () -> AggregateSection.parse(List.of("reviews.author")));
+        assertThrows(InvalidInputException.class, () -> AggregateSection.parse(List.of("product.name")));
+    }
+}
@@ -0,0 +1,195 @@
+package com.microservices.core.product.orchestration.service.limit;
+
+import com.microservices.core.util.exceptions.InvalidInputException;
+import com.microservices.core.util.exceptions.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @BeforeEach
+    void setUp() {
+        concurrencyLimitFilter = new ConcurrencyLimitFilter();
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "readInitialLimit", 1);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "readMinLimit", 1);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "readMaxLimit", 10);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "writeInitialLimit", 1);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "writeMinLimit", 1);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "writeMaxLimit", 10);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "streamMaxLimit", 1);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "smoothing", 0.2);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "longWindow", 600);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "retryAfter", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "meterRegistry", meterRegistry);
+        concurrencyLimitFilter.init();
+    }
+
+    @Test
+    void rejectAboveLimitTest() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/1")), exchange -> pending.asMono()).subscribe();
+
+        MockServerWebExchange rejected = MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/2"));
+        StepVerifier.create(concurrencyLimitFilter.filter(rejected, exchange -> Mono.error(new IllegalStateException("Not expected"))))
+                .verifyComplete();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("2", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitFilter.REJECTED_COUNTER).tag("type", "read").counter().count());
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitFilter.IN_FLIGHT_GAUGE).tag("type", "read").gauge().value());
+
+        // Writes have a limit of their own.
+        MockServerWebExchange write = MockServerWebExchange.from(MockServerHttpRequest.delete("/product-orchestration/1"));
+        StepVerifier.create(concurrencyLimitFilter.filter(write, exchange -> Mono.empty())).verifyComplete();
+        assertNotEquals(HttpStatus.SERVICE_UNAVAILABLE, write.getResponse().getStatusCode());
+
+        pending.tryEmitEmpty();
+        assertEquals(0, meterRegistry.get(ConcurrencyLimitFilter.IN_FLIGHT_GAUGE).tag("type", "read").gauge().value());
+    }
+
+    @Test
+    void otherPathsAreNotLimitedTest() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/1")), exchange -> pending.asMono()).subscribe();
+
+        MockServerWebExchange actuator = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+        StepVerifier.create(concurrencyLimitFilter.filter(actuator, exchange -> Mono.empty())).verifyComplete();
+
+        assertNotEquals(HttpStatus.SERVICE_UNAVAILABLE, actuator.getResponse().getStatusCode());
+    }
+
+    @Test
+    void streamingRequestsHaveTheirOwnLimitTest() {
+        Sinks.Empty<Void> pendingRead = Sinks.empty();
+        concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/1")), exchange -> pendingRead.asMono()).subscribe();
+
+        Sinks.Empty<Void> pendingBulk = Sinks.empty();
+        MockServerWebExchange bulk = MockServerWebExchange.from(MockServerHttpRequest.post("/product-orchestration/bulk"));
+        concurrencyLimitFilter.filter(bulk, exchange -> pendingBulk.asMono()).subscribe();
+        assertNotEquals(HttpStatus.SERVICE_UNAVAILABLE, bulk.getResponse().getStatusCode());
+
+        MockServerWebExchange stream = MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/2").accept(MediaType.APPLICATION_NDJSON));
+        StepVerifier.create(concurrencyLimitFilter.filter(stream, exchange -> Mono.error(new IllegalStateException("Not expected"))))
+                .verifyComplete();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, stream.getResponse().getStatusCode());
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitFilter.REJECTED_COUNTER).tag("type", "stream").counter().count());
+
+        // The fixed limit of streaming requests does not move with their latency.
+        pendingBulk.tryEmitEmpty();
+        assertEquals(0, meterRegistry.get(ConcurrencyLimitFilter.IN_FLIGHT_GAUGE).tag("type", "stream").gauge().value());
+        assertEquals(1, meterRegistry.get(ConcurrencyLimitFilter.LIMIT_GAUGE).tag("type", "stream").gauge().value());
+    }
+
+    @Test
+    void cancelledRequestReleasesPermitTest() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/1")), exchange -> pending.asMono())
+                .subscribe()
+                .dispose();
+
+        assertEquals(0, meterRegistry.get(ConcurrencyLimitFilter.IN_FLIGHT_GAUGE).tag("type", "read").gauge().value());
+    }
+
+    @Test
+    void limitGrowsWhileLatencyIsStableTest() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 0.2, 600);
+
+        for(int i = 0; i < 200; i++) {
+            while(limit.tryAcquire()) {
+                // Keeps the limit fully used.
+            }
+            limit.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        assertTrue(limit.getLimit() > 10);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyIncreasesTest() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 1, 100, 0.2, 600);
+
+        for(int i = 0; i < 100; i++) {
+            while(limit.tryAcquire()) {
+                // Keeps the limit fully used.
+            }
+            limit.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int stableLimit = limit.getLimit();
+
+        for(int i = 0; i < 20; i++) {
+            while(limit.tryAcquire()) {
+                // Keeps the limit fully used.
+            }
+            limit.onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        assertTrue(limit.getLimit() < stableLimit);
+    }
+
+    @Test
+    void limitBacksOffOnDropTest() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 5, 100, 0.2, 600);
+
+        assertTrue(limit.tryAcquire());
+        limit.onDropped(TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(45, limit.getLimit());
+    }
+
+    @Test
+    void clientErrorsAreNotDropsTest() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 5, 100, 0.2, 600);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "readLimit", limit);
+
+        StepVerifier.create(concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/1")),
+                        exchange -> Mono.error(new NotFoundException("No product found for productId: 1"))))
+                .verifyError(NotFoundException.class);
+        StepVerifier.create(concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/-1")),
+                        exchange -> Mono.error(new InvalidInputException("Invalid productId: -1"))))
+                .verifyError(InvalidInputException.class);
+        StepVerifier.create(concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/2")),
+                        exchange -> Mono.error(WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null))))
+                .verifyError(WebClientResponseException.class);
+
+        assertEquals(50, limit.getLimit());
+    }
+
+    @Test
+    void timeoutsAndServerErrorsAreDropsTest() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 5, 100, 0.2, 600);
+        ReflectionTestUtils.setField(concurrencyLimitFilter, "readLimit", limit);
+
+        StepVerifier.create(concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/1")),
+                        exchange -> Mono.error(new IllegalStateException("Product service call failed", new TimeoutException("Did not observe any item")))))
+                .verifyError(IllegalStateException.class);
+
+        assertEquals(45, limit.getLimit());
+
+        StepVerifier.create(concurrencyLimitFilter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/product-orchestration/2")),
+                        exchange -> Mono.error(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable", null, null, null))))
+                .verifyError(WebClientResponseException.class);
+
+        assertEquals(40, limit.getLimit());
+    }
+}
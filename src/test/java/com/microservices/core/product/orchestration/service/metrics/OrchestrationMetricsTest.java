@@ -0,0 +1,106 @@
+package com.microservices.core.product.orchestration.service.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrchestrationMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OrchestrationMetrics orchestrationMetrics;
+
+    @BeforeEach
+    void setUp() {
+        orchestrationMetrics = new OrchestrationMetrics();
+        ReflectionTestUtils.setField(orchestrationMetrics, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void timeRemoteCallSuccessTest() {
+        StepVerifier.create(orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "getProduct", Mono.just("product")))
+                .expectNext("product")
+                .verifyComplete();
+
+        assertEquals(1, getRemoteCallTimer(OrchestrationMetrics.PRODUCT_SERVICE, "getProduct", "success", "false").count());
+    }
+
+    @Test
+    void timeRemoteCallFallbackValueTest() {
+        StepVerifier.create(orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "getProduct", Mono.just("fallback"), "fallback"::equals, null))
+                .expectNext("fallback")
+                .verifyComplete();
+
+        assertEquals(1, getRemoteCallTimer(OrchestrationMetrics.PRODUCT_SERVICE, "getProduct", "fallback", "true").count());
+    }
+
+    @Test
+    void timeRemoteCallFallbackTest() {
+        Flux<String> call = Flux.error(new IllegalStateException("Review service unavailable"));
+
+        StepVerifier.create(orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "getProductReviews", call, error -> Flux.empty()))
+                .verifyComplete();
+
+        assertEquals(1, getRemoteCallTimer(OrchestrationMetrics.REVIEW_SERVICE, "getProductReviews", "fallback", "true").count());
+    }
+
+    @Test
+    void timeRemoteCallReusesTimerTest() {
+        StepVerifier.create(orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "getProduct", Mono.just("product")))
+                .expectNext("product")
+                .verifyComplete();
+        StepVerifier.create(orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.PRODUCT_SERVICE, "getProduct", Mono.just("product")))
+                .expectNext("product")
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get(OrchestrationMetrics.REMOTE_CALL_TIMER).timers().size());
+        assertEquals(2, getRemoteCallTimer(OrchestrationMetrics.PRODUCT_SERVICE, "getProduct", "success", "false").count());
+    }
+
+    @Test
+    void timeRemoteCallErrorTest() {
+        StepVerifier.create(orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.REVIEW_SERVICE, "deleteProductReview", Mono.error(new IllegalStateException("Review service unavailable"))))
+                .verifyError(IllegalStateException.class);
+
+        assertEquals(1, getRemoteCallTimer(OrchestrationMetrics.REVIEW_SERVICE, "deleteProductReview", "error", "false").count());
+    }
+
+    @Test
+    void timeRemoteCallCancelTest() {
+        Sinks.One<String> sink = Sinks.one();
+
+        StepVerifier.create(orchestrationMetrics.timeRemoteCall(OrchestrationMetrics.RECOMMENDATION_SERVICE, "getProductRecommendationPage", sink.asMono()))
+                .expectSubscription()
+                .thenCancel()
+                .verify();
+
+        assertEquals(1, getRemoteCallTimer(OrchestrationMetrics.RECOMMENDATION_SERVICE, "getProductRecommendationPage", "cancelled", "false").count());
+    }
+
+    @Test
+    void timeAssemblyAndAggregateTest() {
+        StepVerifier.create(orchestrationMetrics.timeAggregate("getProductAggregate", Mono.fromSupplier(() -> orchestrationMetrics.timeAssembly(() -> "aggregate"))))
+                .expectNext("aggregate")
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get(OrchestrationMetrics.AGGREGATE_ASSEMBLY_TIMER).timer().count());
+        assertEquals(1, meterRegistry.get(OrchestrationMetrics.AGGREGATE_TIMER).tag("operation", "getProductAggregate").tag("outcome", "success").timer().count());
+    }
+
+    private Timer getRemoteCallTimer(String service, String operation, String outcome, String fallback) {
+        return meterRegistry.get(OrchestrationMetrics.REMOTE_CALL_TIMER)
+                .tag("service", service)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("fallback", fallback)
+                .timer();
+    }
+}
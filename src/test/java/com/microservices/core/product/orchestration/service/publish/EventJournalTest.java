@@ -0,0 +1,175 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendAndReadTest() throws IOException {
+        try(EventJournal eventJournal = openJournal()) {
+            eventJournal.append(List.of(buildEntry("products-out-0", 1), buildEntry("reviews-out-0", 2)));
+
+            List<EventJournal.Entry> entries = eventJournal.read(10);
+
+            assertEquals(2, entries.size());
+            assertEquals("products-out-0", entries.get(0).bindingName());
+            assertEquals("event 1", new String(entries.get(0).payload(), StandardCharsets.UTF_8));
+            assertEquals("L1", entries.get(0).headers().get("partitionKey"));
+            assertEquals(2, eventJournal.getDepth());
+
+            // Reading does not consume the entries.
+            assertEquals(2, eventJournal.read(10).size());
+
+            eventJournal.acknowledge(entries.get(0), 1);
+
+            assertEquals(1, eventJournal.getDepth());
+            assertEquals("reviews-out-0", eventJournal.read(10).get(0).bindingName());
+        }
+    }
+
+    @Test
+    void rollAndDeleteSegmentsTest() throws IOException {
+        try(EventJournal eventJournal = openJournal()) {
+            for(int i = 0; i < 30; i++) {
+                eventJournal.append(List.of(buildEntry("products-out-0", i)));
+            }
+
+            assertTrue(eventJournal.getSegmentCount() > 1);
+
+            List<EventJournal.Entry> entries = eventJournal.read(100);
+            assertEquals(30, entries.size());
+            assertEquals(IntStream.range(0, 30).mapToObj(i -> "event " + i).toList(),
+                    entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList());
+
+            eventJournal.acknowledge(entries.get(29), 30);
+
+            assertEquals(0, eventJournal.getDepth());
+            assertEquals(1, eventJournal.getSegmentCount());
+            assertEquals(1, countSegmentFiles());
+        }
+    }
+
+    @Test
+    void replayAfterRestartTest() throws IOException {
+        try(EventJournal eventJournal = openJournal()) {
+            eventJournal.append(List.of(buildEntry("products-out-0", 1), buildEntry("products-out-0", 2), buildEntry("products-out-0", 3)));
+            eventJournal.acknowledge(eventJournal.read(1).get(0), 1);
+        }
+
+        try(EventJournal eventJournal = openJournal()) {
+            List<EventJournal.Entry> entries = eventJournal.read(10);
+
+            assertEquals(2, eventJournal.getDepth());
+            assertEquals(List.of("event 2", "event 3"), entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList());
+
+            eventJournal.append(List.of(buildEntry("products-out-0", 4)));
+            assertEquals(3, eventJournal.read(10).size());
+        }
+    }
+
+    @Test
+    void tornRecordIsIgnoredTest() throws IOException {
+        try(EventJournal eventJournal = openJournal()) {
+            eventJournal.append(List.of(buildEntry("products-out-0", 1), buildEntry("products-out-0", 2)));
+        }
+
+        // Corrupts the checksum of the second record.
+        Path segment;
+        try(Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(file -> file.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 0);
+            channel.write(ByteBuffer.allocate(4).putInt(0, 42), 8L + length.getInt(0) + 4);
+        }
+
+        try(EventJournal eventJournal = openJournal()) {
+            assertEquals(1, eventJournal.getDepth());
+            assertEquals(1, eventJournal.read(10).size());
+        }
+    }
+
+    @Test
+    void fullJournalTest() throws IOException {
+        try(EventJournal eventJournal = new EventJournal(directory, SEGMENT_SIZE, 2, EventJournal.FsyncPolicy.NEVER)) {
+            assertThrows(RejectedExecutionException.class, () -> {
+                for(int i = 0; i < 100; i++) {
+                    eventJournal.append(List.of(buildEntry("products-out-0", i)));
+                }
+            });
+        }
+    }
+
+    @Test
+    void batchThatDoesNotFitIsNotAppendedTest() throws IOException {
+        try(EventJournal eventJournal = new EventJournal(directory, SEGMENT_SIZE, 2, EventJournal.FsyncPolicy.NEVER)) {
+            List<EventJournal.Entry> batch = IntStream.range(0, 100).mapToObj(i -> buildEntry("products-out-0", i)).toList();
+
+            assertThrows(RejectedExecutionException.class, () -> eventJournal.append(batch));
+
+            assertEquals(0, eventJournal.getDepth());
+            assertTrue(eventJournal.read(10).isEmpty());
+            assertEquals(1, eventJournal.getSegmentCount());
+        }
+    }
+
+    @Test
+    void forceWhileAppendingTest() throws Exception {
+        try(EventJournal eventJournal = new EventJournal(directory, SEGMENT_SIZE, 16, EventJournal.FsyncPolicy.INTERVAL)) {
+            AtomicBoolean appending = new AtomicBoolean(true);
+            Thread forcer = new Thread(() -> {
+                while(appending.get()) {
+                    eventJournal.force();
+                }
+            });
+            forcer.start();
+
+            for(int i = 0; i < 50; i++) {
+                eventJournal.append(List.of(buildEntry("products-out-0", i)));
+            }
+            appending.set(false);
+            forcer.join();
+        }
+
+        try(EventJournal eventJournal = openJournal()) {
+            assertEquals(50, eventJournal.getDepth());
+        }
+    }
+
+    private EventJournal openJournal() throws IOException {
+        return new EventJournal(directory, SEGMENT_SIZE, 16, EventJournal.FsyncPolicy.ALWAYS);
+    }
+
+    private long countSegmentFiles() throws IOException {
+        try(Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+
+    private EventJournal.Entry buildEntry(String bindingName, long key) {
+        return new EventJournal.Entry(bindingName, Map.of("partitionKey", "L" + key), ("event " + key).getBytes(StandardCharsets.UTF_8), System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,157 @@
+package com.microservices.core.product.orchestration.service.publish;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.util.ProductOrchestrationUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.binder.DefaultPartitionSelectorStrategy;
+import org.springframework.cloud.stream.binder.PartitionSelectorStrategy;
+import org.springframework.cloud.stream.binder.ProducerProperties;
+import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KafkaEventPublisherTest {
+
+    private static final String BINDING = "products-out-0";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MockProducer<String, byte[]> mockProducer = new MockProducer<>(false, new StringSerializer(), new ByteArraySerializer());
+
+    private KafkaEventPublisher kafkaEventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        kafkaEventPublisher = new KafkaEventPublisher();
+        ReflectionTestUtils.setField(kafkaEventPublisher, "maxInFlight", 1);
+        ReflectionTestUtils.setField(kafkaEventPublisher, "maxPending", 1);
+        ReflectionTestUtils.setField(kafkaEventPublisher, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(kafkaEventPublisher, "bindingServiceProperties", new BindingServiceProperties());
+        ReflectionTestUtils.setField(kafkaEventPublisher, "kafkaTemplate", new KafkaTemplate<>(new MockProducerFactory<>(() -> mockProducer)));
+        ReflectionTestUtils.setField(kafkaEventPublisher, "publishMetrics", new PublishMetrics(meterRegistry, "reactive"));
+        ReflectionTestUtils.setField(kafkaEventPublisher, "sendScheduler", Schedulers.immediate());
+        ReflectionTestUtils.setField(kafkaEventPublisher, "sendWorkers", new Scheduler.Worker[] {Schedulers.immediate().createWorker()});
+        ReflectionTestUtils.setField(kafkaEventPublisher, "evaluationContext", ExpressionUtils.createStandardEvaluationContext());
+    }
+
+    @Test
+    void sendCompletesOnAcknowledgementTest() {
+        StepVerifier.create(kafkaEventPublisher.send(BINDING, buildMessage(1L)))
+                .then(() -> {
+                    assertEquals(1, mockProducer.history().size());
+                    assertEquals("1", mockProducer.history().get(0).key());
+                    mockProducer.completeNext();
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, meterRegistry.get(PublishMetrics.PUBLISH_TIMER).tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void sendFailsOnBrokerErrorTest() {
+        StepVerifier.create(kafkaEventPublisher.send(BINDING, buildMessage(1L)))
+                .then(() -> mockProducer.errorNext(new IllegalStateException("Broker unavailable")))
+                .expectError()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(1, meterRegistry.get(PublishMetrics.PUBLISH_TIMER).tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void maxInFlightTest() {
+        kafkaEventPublisher.send(BINDING, buildMessage(1L)).subscribe();
+        kafkaEventPublisher.send(BINDING, buildMessage(2L)).subscribe();
+
+        // The second send waits until the first one has been acknowledged.
+        assertEquals(1, mockProducer.history().size());
+
+        StepVerifier.create(kafkaEventPublisher.send(BINDING, buildMessage(3L)))
+                .expectError(RejectedExecutionException.class)
+                .verify(Duration.ofSeconds(5));
+
+        mockProducer.completeNext();
+
+        assertEquals(2, mockProducer.history().size());
+        assertEquals("2", mockProducer.history().get(1).key());
+        assertEquals(1, meterRegistry.get(PublishMetrics.PUBLISH_REJECTED_COUNTER).counter().count());
+    }
+
+    @Test
+    void cancelledPendingSendIsDroppedTest() {
+        kafkaEventPublisher.send(BINDING, buildMessage(1L)).subscribe();
+        kafkaEventPublisher.send(BINDING, buildMessage(2L)).subscribe().dispose();
+
+        mockProducer.completeNext();
+
+        assertEquals(1, mockProducer.history().size());
+
+        // The slot of the cancelled send is free again.
+        kafkaEventPublisher.send(BINDING, buildMessage(3L)).subscribe();
+
+        assertEquals("3", mockProducer.history().get(1).key());
+    }
+
+    @Test
+    void sendAllKeepsOrderTest() {
+        kafkaEventPublisher.sendAll(BINDING, List.of(buildMessage(1L), buildMessage(2L), buildMessage(3L))).subscribe();
+
+        assertEquals(List.of("1", "2", "3"), mockProducer.history().stream().map(ProducerRecord::key).toList());
+    }
+
+    @Test
+    void partitionIsTheBinderOneTest() {
+        ProducerProperties producerProperties = new ProducerProperties();
+        producerProperties.setPartitionKeyExpression(new SpelExpressionParser().parseExpression("headers['partitionKey']"));
+        producerProperties.setPartitionCount(3);
+        BindingProperties bindingProperties = new BindingProperties();
+        bindingProperties.setProducer(producerProperties);
+        BindingServiceProperties bindingServiceProperties = new BindingServiceProperties();
+        bindingServiceProperties.setBindings(Map.of(BINDING, bindingProperties));
+        ReflectionTestUtils.setField(kafkaEventPublisher, "bindingServiceProperties", bindingServiceProperties);
+
+        kafkaEventPublisher.sendAll(BINDING, List.of(buildMessage(1L), buildMessage(2L), buildMessage(-7L))).subscribe();
+
+        // The default selector of the binder: the absolute hash code of the key modulo the partition count.
+        PartitionSelectorStrategy binderSelector = new DefaultPartitionSelectorStrategy();
+        assertEquals(List.of(1L, 2L, -7L).stream().map(key -> Math.abs(binderSelector.selectPartition(key, 3) % 3)).toList(),
+                mockProducer.history().stream().map(ProducerRecord::partition).toList());
+    }
+
+    @Test
+    void unpartitionedBindingLeavesPartitionToProducerTest() {
+        kafkaEventPublisher.send(BINDING, buildMessage(1L)).subscribe();
+
+        assertNull(mockProducer.history().get(0).partition());
+        assertNotNull(mockProducer.history().get(0).headers().lastHeader(MessageHeaders.CONTENT_TYPE));
+    }
+
+    private Message<?> buildMessage(Long key) {
+        return MessageBuilder.withPayload("event " + key)
+                .setHeader(ProductOrchestrationUtil.PARTITION_KEY_HEADER, key)
+                .build();
+    }
+}
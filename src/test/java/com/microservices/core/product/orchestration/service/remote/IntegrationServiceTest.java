@@ -0,0 +1,420 @@
+package com.microservices.core.product.orchestration.service.remote;
+
+import com.microservices.core.product.orchestration.service.cache.AggregateRequestCoalescer;
+import com.microservices.core.product.orchestration.service.cache.LastKnownGoodStore;
+import com.microservices.core.product.orchestration.service.cache.ProductAggregateCache;
+import com.microservices.core.product.orchestration.service.dto.AggregatePage;
+import com.microservices.core.product.orchestration.service.dto.AggregateSection;
+import com.microservices.core.product.orchestration.service.dto.BulkItemResultDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateChunkDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateResultDTO;
+import com.microservices.core.product.orchestration.service.dto.RecommendationSummaryDTO;
+import com.microservices.core.product.orchestration.service.dto.ReviewSummaryDTO;
+import com.microservices.core.product.orchestration.service.dto.ServiceAddressesDTO;
+import com.microservices.core.product.orchestration.service.dto.TaggedProductAggregate;
+import com.microservices.core.product.orchestration.service.metrics.OrchestrationMetrics;
+import com.microservices.core.product.orchestration.service.remote.dto.PageDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import com.microservices.core.product.orchestration.service.view.ProductAggregateView;
+import com.microservices.core.util.exceptions.InvalidInputException;
+import com.microservices.core.util.http.ServiceUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IntegrationServiceTest {
+
+    private final ProductService productService = mock(ProductService.class);
+
+    private final ReviewService reviewService = mock(ReviewService.class);
+
+    private final RecommendationService recommendationService = mock(RecommendationService.class);
+
+    private final ProductAggregateCache productAggregateCache = mock(ProductAggregateCache.class);
+
+    private final ProductAggregateView productAggregateView = mock(ProductAggregateView.class);
+
+    private final LastKnownGoodStore lastKnownGoodStore = mock(LastKnownGoodStore.class);
+
+    // The product service answers per product ID, products without an answer are created right away.
+    private final Map<Long, Mono<ProductDTO>> createdProducts = new HashMap<>();
+
+    private IntegrationService integrationService;
+
+    @BeforeEach
+    void setUp() {
+        OrchestrationMetrics orchestrationMetrics = new OrchestrationMetrics();
+        ReflectionTestUtils.setField(orchestrationMetrics, "meterRegistry", new SimpleMeterRegistry());
+
+        AggregateRequestCoalescer aggregateRequestCoalescer = new AggregateRequestCoalescer();
+        ReflectionTestUtils.setField(aggregateRequestCoalescer, "enabled", false);
+
+        ServiceUtil serviceUtil = mock(ServiceUtil.class);
+        when(serviceUtil.getAddress()).thenReturn("orchestration/10.0.0.0:7000");
+
+        integrationService = new IntegrationService();
+        ReflectionTestUtils.setField(integrationService, "serviceUtil", serviceUtil);
+        ReflectionTestUtils.setField(integrationService, "productService", productService);
+        ReflectionTestUtils.setField(integrationService, "reviewService", reviewService);
+        ReflectionTestUtils.setField(integrationService, "recommendationService", recommendationService);
+        ReflectionTestUtils.setField(integrationService, "productAggregateCache", productAggregateCache);
+        ReflectionTestUtils.setField(integrationService, "aggregateRequestCoalescer", aggregateRequestCoalescer);
+        ReflectionTestUtils.setField(integrationService, "productAggregateView", productAggregateView);
+        ReflectionTestUtils.setField(integrationService, "lastKnownGoodStore", lastKnownGoodStore);
+        ReflectionTestUtils.setField(integrationService, "orchestrationMetrics", orchestrationMetrics);
+        ReflectionTestUtils.setField(integrationService, "batchConcurrency", 16);
+        ReflectionTestUtils.setField(integrationService, "bulkConcurrency", 32);
+        ReflectionTestUtils.setField(integrationService, "bulkDeleteConcurrency", 16);
+        ReflectionTestUtils.setField(integrationService, "bulkDeleteBatchSize", 500);
+        ReflectionTestUtils.setField(integrationService, "bulkDeleteMaxBatchWait", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(integrationService, "defaultPageLimit", 1000);
+        ReflectionTestUtils.setField(integrationService, "maxPageLimit", 1000);
+
+        when(productService.buildProduct(any())).thenAnswer(invocation -> buildProduct(invocation.<ProductAggregateDTO>getArgument(0).productId()));
+        when(productService.createProduct(any())).thenAnswer(invocation -> {
+            ProductDTO productDTO = invocation.getArgument(0);
+            return createdProducts.getOrDefault(productDTO.getProductId(), Mono.just(productDTO));
+        });
+        when(recommendationService.createProductRecommendations(anyList())).thenReturn(Flux.just(List.of()));
+        when(reviewService.createProductReviews(anyList())).thenReturn(Flux.just(List.of()));
+        when(reviewService.getProductReviewPage(any(), anyInt(), anyInt(), any())).thenReturn(Mono.just(PageDTO.empty(0, 1000)));
+        when(recommendationService.getProductRecommendationPage(any(), anyInt(), anyInt(), any())).thenReturn(Mono.just(PageDTO.empty(0, 1000)));
+    }
+
+    @Test
+    void batchResultPerDistinctProductIdTest() {
+        when(productService.getProduct(any())).thenAnswer(invocation -> switch(invocation.<Long>getArgument(0).intValue()) {
+            case 2 -> Mono.empty();
+            case 3 -> Mono.error(new IllegalStateException("Product service unavailable"));
+            default -> Mono.just(buildProduct(invocation.getArgument(0)));
+        });
+
+        Map<Long, ProductAggregateResultDTO> results = integrationService.getProductAggregates(List.of(1L, 2L, 1L, 3L, -1L), AggregateSection.ALL)
+                .collectMap(ProductAggregateResultDTO::productId)
+                .block();
+
+        assertEquals(4, results.size());
+
+        assertEquals("product 1", results.get(1L).productAggregate().name());
+        assertNull(results.get(1L).error());
+        assertEquals("No product found for ID: 2", results.get(2L).error());
+        assertEquals("Product service unavailable", results.get(3L).error());
+        assertEquals("Invalid product ID: -1", results.get(-1L).error());
+
+        // The duplicated ID is fetched once, the invalid one is not fetched at all.
+        verify(productService, times(1)).getProduct(1L);
+        verify(productService, never()).getProduct(-1L);
+    }
+
+    @Test
+    void aggregatePageTest() {
+        ReflectionTestUtils.setField(integrationService, "defaultPageLimit", 100);
+
+        assertEquals(new AggregatePage(0, 100), integrationService.getAggregatePage(null, null));
+        assertEquals(new AggregatePage(200, 1000), integrationService.getAggregatePage(200, 1000));
+
+        assertThrows(InvalidInputException.class, () -> integrationService.getAggregatePage(-1, 10));
+        assertThrows(InvalidInputException.class, () -> integrationService.getAggregatePage(0, 0));
+        assertThrows(InvalidInputException.class, () -> integrationService.getAggregatePage(0, 1001));
+    }
+
+    @Test
+    void pagedAggregateIsNotCachedTest() {
+        when(productService.getProduct(1L)).thenReturn(Mono.just(buildProduct(1L)));
+        when(reviewService.getProductReviewPage(eq(1L), eq(2), eq(2), any()))
+                .thenReturn(Mono.just(new PageDTO<>(List.of(buildReview(3L), buildReview(4L)), 2, 2, true, 5L)));
+
+        ProductAggregateDTO productAggregateDTO = integrationService.getProductAggregate(1L, AggregateSection.ALL, new AggregatePage(2, 2)).block();
+
+        assertTrue(productAggregateDTO.reviewPage().hasMore());
+        assertEquals(2, productAggregateDTO.reviewPage().returned());
+        assertEquals(5L, productAggregateDTO.reviewPage().totalCount());
+
+        // Only the default page is cached and only a page that holds everything seeds the view.
+        verify(productAggregateCache, never()).getTagged(1L);
+        verify(productAggregateCache, never()).put(eq(1L), any());
+        verify(productAggregateView, never()).put(any(), any(), any(), any());
+    }
+
+    @Test
+    void aggregateReadBeforeInvalidationIsNotCachedTest() {
+        Sinks.One<ProductDTO> product = Sinks.one();
+        when(productService.getProduct(1L)).thenReturn(product.asMono(), Mono.just(buildProduct(1L)));
+        when(productService.deleteProduct(1L)).thenReturn(Mono.empty());
+        when(recommendationService.deleteProductRecommendations(1L)).thenReturn(Mono.empty());
+        when(reviewService.deleteProductReview(1L)).thenReturn(Mono.empty());
+
+        CompletableFuture<ProductAggregateDTO> staleRead = integrationService.getProductAggregate(1L).toFuture();
+        integrationService.deleteProductAggregate(1L).block();
+        product.tryEmitValue(buildProduct(1L));
+
+        assertEquals("product 1", staleRead.join().name());
+        verify(productAggregateCache, never()).put(eq(1L), any());
+        verify(productAggregateView, never()).put(any(), any(), any(), any());
+
+        // A read that starts after the invalidation is cached again.
+        integrationService.getProductAggregate(1L).block();
+
+        verify(productAggregateCache).put(eq(1L), any());
+    }
+
+    @Test
+    void projectionOfCachedAggregateTest() {
+        when(productAggregateCache.getTagged(1L)).thenReturn(TaggedProductAggregate.of(ProductAggregateDTO.builder()
+                .productId(1L)
+                .name("product 1")
+                .weight(1)
+                .reviewSummaries(List.of(new ReviewSummaryDTO(1L, "author", "subject", "content")))
+                .recommendationSummaries(List.of())
+                .serviceAddresses(ServiceAddressesDTO.builder()
+                        .productAddress("product/10.0.0.1:7001")
+                        .reviewAddress("review/10.0.0.2:7002")
+                        .recommendationAddress("recommendation/10.0.0.3:7003")
+                        .orchestrationAddress("orchestration/10.0.0.0:7000")
+                        .build())
+                .warnings(List.of("Empty product recommendations"))
+                .build()));
+
+        ProductAggregateDTO productAggregateDTO = integrationService.getProductAggregate(1L, Set.of(AggregateSection.REVIEWS)).block();
+
+        assertEquals(1L, productAggregateDTO.productId());
+        assertNull(productAggregateDTO.name());
+        assertNull(productAggregateDTO.weight());
+        assertEquals(1, productAggregateDTO.reviewSummaries().size());
+        assertNull(productAggregateDTO.recommendationSummaries());
+        assertEquals("", productAggregateDTO.serviceAddresses().productAddress());
+        assertEquals("review/10.0.0.2:7002", productAggregateDTO.serviceAddresses().reviewAddress());
+        assertEquals("", productAggregateDTO.serviceAddresses().recommendationAddress());
+
+        // The warning about a section that was not selected is left out.
+        assertEquals(List.of(), productAggregateDTO.warnings());
+        verifyNoInteractions(productService, reviewService, recommendationService);
+    }
+
+    @Test
+    void streamEmitsChunksInOrderAsTheyArriveTest() {
+        Sinks.One<ProductDTO> product = Sinks.one();
+        Sinks.Many<ReviewDTO> reviews = Sinks.many().unicast().onBackpressureBuffer();
+        when(productService.getProduct(1L)).thenReturn(product.asMono());
+        when(reviewService.getProductReviews(1L, 0, 1001)).thenReturn(reviews.asFlux());
+        when(recommendationService.getProductRecommendations(1L, 0, 1001)).thenReturn(Flux.empty());
+        when(reviewService.buildReviewSummary(any())).thenAnswer(invocation -> {
+            ReviewDTO reviewDTO = invocation.getArgument(0);
+            return new ReviewSummaryDTO(reviewDTO.reviewId(), reviewDTO.author(), reviewDTO.subject(), reviewDTO.content());
+        });
+
+        StepVerifier.create(integrationService.getProductAggregateStream(1L, AggregateSection.ALL, new AggregatePage(0, 1000)))
+                .expectSubscription()
+                // A review that arrives first is held back until the product chunk is out.
+                .then(() -> reviews.tryEmitNext(buildReview(1L)))
+                .expectNoEvent(Duration.ofMillis(100))
+                .then(() -> product.tryEmitValue(buildProduct(1L)))
+                .assertNext(chunk -> assertEquals(ProductAggregateChunkDTO.Type.PRODUCT, chunk.type()))
+                .assertNext(chunk -> assertEquals(1L, chunk.reviewSummary().reviewId()))
+                // Later reviews are passed on one by one, before the review service has sent them all.
+                .then(() -> reviews.tryEmitNext(buildReview(2L)))
+                .assertNext(chunk -> assertEquals(2L, chunk.reviewSummary().reviewId()))
+                .then(reviews::tryEmitComplete)
+                .assertNext(chunk -> {
+                    assertEquals(ProductAggregateChunkDTO.Type.COMPLETE, chunk.type());
+                    assertEquals(2, chunk.reviewPage().returned());
+                    assertFalse(chunk.reviewPage().hasMore());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void bulkCreateResultsKeepTheRequestIndexTest() {
+        Sinks.One<ProductDTO> firstProduct = Sinks.one();
+        createdProducts.put(1L, firstProduct.asMono());
+
+        // Results come in completion order, the index tells which line each one answers.
+        StepVerifier.create(integrationService.createProductAggregates(Flux.just(buildProductAggregate(1L), buildProductAggregate(2L)), false))
+                .assertNext(result -> assertResult(result, 1L, 2L, BulkItemResultDTO.Status.CREATED))
+                .then(() -> firstProduct.tryEmitValue(buildProduct(1L)))
+                .assertNext(result -> assertResult(result, 0L, 1L, BulkItemResultDTO.Status.CREATED))
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkCreateMalformedLineTest() {
+        Flux<ProductAggregateDTO> body = Flux.concat(Flux.just(buildProductAggregate(1L)), Flux.error(new DecodingException("Malformed line")));
+
+        List<BulkItemResultDTO> results = integrationService.createProductAggregates(body, false).collectList().block();
+
+        assertEquals(2, results.size());
+        assertResult(results.get(0), 0L, 1L, BulkItemResultDTO.Status.CREATED);
+        assertNull(results.get(1).index());
+        assertEquals(BulkItemResultDTO.Status.FAILED, results.get(1).status());
+        assertTrue(results.get(1).error().contains("Malformed line"));
+    }
+
+    @Test
+    void bulkCreateDownstreamFailureTest() {
+        createdProducts.put(2L, Mono.error(new IllegalStateException("Product service unavailable")));
+
+        List<BulkItemResultDTO> results = createProductAggregates(buildProductAggregate(1L), buildProductAggregate(2L), buildProductAggregate(3L));
+
+        assertResult(results.get(0), 0L, 1L, BulkItemResultDTO.Status.CREATED);
+        assertResult(results.get(1), 1L, 2L, BulkItemResultDTO.Status.FAILED);
+        assertEquals("Product service unavailable", results.get(1).error());
+        assertResult(results.get(2), 2L, 3L, BulkItemResultDTO.Status.CREATED);
+        verify(productAggregateCache).invalidate(2L);
+    }
+
+    @Test
+    void bulkCreateWithoutReviewsOrRecommendationsTest() {
+        ProductAggregateDTO productOnly = ProductAggregateDTO.builder().productId(1L).name("product 1").weight(1).build();
+        createdProducts.put(2L, Mono.empty());
+
+        List<BulkItemResultDTO> results = createProductAggregates(productOnly, buildProductAggregate(2L));
+
+        // An empty answer of the product service is not taken for a created product.
+        assertResult(results.get(0), 0L, 1L, BulkItemResultDTO.Status.CREATED);
+        assertResult(results.get(1), 1L, 2L, BulkItemResultDTO.Status.FAILED);
+        // Only the second item has reviews to create.
+        verify(reviewService, times(1)).createProductReviews(anyList());
+    }
+
+    @Test
+    void bulkDeleteAsyncBatchesTest() {
+        ReflectionTestUtils.setField(integrationService, "bulkDeleteBatchSize", 2);
+        List<List<Long>> batches = new CopyOnWriteArrayList<>();
+        when(productService.deleteProductsAsync(anyList())).thenAnswer(invocation -> {
+            batches.add(invocation.getArgument(0));
+            return Mono.empty();
+        });
+        when(recommendationService.deleteRecommendationsAsync(anyList())).thenReturn(Mono.empty());
+        when(reviewService.deleteReviewsAsync(anyList())).thenReturn(Mono.empty());
+
+        List<BulkItemResultDTO> results = deleteProductAggregatesAsync(Flux.just(1L, 2L, 3L, 4L, 5L));
+
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), batches);
+        assertEquals(5, results.size());
+        results.forEach(result -> assertResult(result, result.productId() - 1, result.productId(), BulkItemResultDTO.Status.ACCEPTED));
+    }
+
+    @Test
+    void bulkDeleteAsyncSendsPartialBatchAfterMaxWaitTest() {
+        when(productService.deleteProductsAsync(anyList())).thenReturn(Mono.empty());
+        when(recommendationService.deleteRecommendationsAsync(anyList())).thenReturn(Mono.empty());
+        when(reviewService.deleteReviewsAsync(anyList())).thenReturn(Mono.empty());
+        Sinks.Many<Long> body = Sinks.many().unicast().onBackpressureBuffer();
+
+        // The request body is still open, the first product ID is answered without waiting for a full batch.
+        StepVerifier.create(integrationService.deleteProductAggregatesAsync(body.asFlux()))
+                .then(() -> body.tryEmitNext(1L))
+                .assertNext(result -> assertResult(result, 0L, 1L, BulkItemResultDTO.Status.ACCEPTED))
+                .then(body::tryEmitComplete)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void bulkDeleteAsyncPartialFailureTest() {
+        ReflectionTestUtils.setField(integrationService, "bulkDeleteBatchSize", 2);
+        when(productService.deleteProductsAsync(anyList())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).contains(3L)
+                ? Mono.error(new IllegalStateException("Broker unavailable"))
+                : Mono.empty());
+        when(recommendationService.deleteRecommendationsAsync(anyList())).thenReturn(Mono.empty());
+        when(reviewService.deleteReviewsAsync(anyList())).thenReturn(Mono.empty());
+
+        List<BulkItemResultDTO> results = deleteProductAggregatesAsync(Flux.just(1L, 0L, 3L, 4L));
+
+        assertResult(results.get(0), 0L, 1L, BulkItemResultDTO.Status.ACCEPTED);
+        assertResult(results.get(1), 1L, 0L, BulkItemResultDTO.Status.FAILED);
+        assertResult(results.get(2), 2L, 3L, BulkItemResultDTO.Status.FAILED);
+        assertEquals("Broker unavailable", results.get(2).error());
+        assertResult(results.get(3), 3L, 4L, BulkItemResultDTO.Status.FAILED);
+
+        // The invalid product ID is left out of the batch it was read with.
+        verify(productService).deleteProductsAsync(List.of(1L));
+    }
+
+    @Test
+    void bulkDeleteInvalidatesCachedAggregatesTest() {
+        when(productService.deleteProduct(any())).thenAnswer(invocation -> Long.valueOf(2L).equals(invocation.getArgument(0))
+                ? Mono.error(new IllegalStateException("Product service unavailable"))
+                : Mono.empty());
+        when(recommendationService.deleteProductRecommendations(any())).thenReturn(Mono.empty());
+        when(reviewService.deleteProductReview(any())).thenReturn(Mono.empty());
+
+        List<BulkItemResultDTO> results = integrationService.deleteProductAggregates(Flux.just(1L, 2L))
+                .sort(Comparator.comparing(BulkItemResultDTO::index))
+                .collectList()
+                .block();
+
+        assertResult(results.get(0), 0L, 1L, BulkItemResultDTO.Status.DELETED);
+        assertResult(results.get(1), 1L, 2L, BulkItemResultDTO.Status.FAILED);
+
+        // A failed delete may still have removed some of the product data.
+        for(Long productId : List.of(1L, 2L)) {
+            verify(productAggregateCache).invalidate(productId);
+            verify(productAggregateView).invalidate(productId);
+            verify(lastKnownGoodStore).invalidate(productId);
+        }
+    }
+
+    private List<BulkItemResultDTO> deleteProductAggregatesAsync(Flux<Long> productIds) {
+        return integrationService.deleteProductAggregatesAsync(productIds)
+                .sort(Comparator.comparing(BulkItemResultDTO::index))
+                .collectList()
+                .block();
+    }
+
+    private List<BulkItemResultDTO> createProductAggregates(ProductAggregateDTO... productAggregateDTOS) {
+        return integrationService.createProductAggregates(Flux.just(productAggregateDTOS), false)
+                .sort(Comparator.comparing(BulkItemResultDTO::index))
+                .collectList()
+                .block();
+    }
+
+    private static void assertResult(BulkItemResultDTO result, Long index, Long productId, BulkItemResultDTO.Status status) {
+        assertEquals(index, result.index());
+        assertEquals(productId, result.productId());
+        assertEquals(status, result.status());
+    }
+
+    private static ProductAggregateDTO buildProductAggregate(Long productId) {
+        return ProductAggregateDTO.builder()
+                .productId(productId)
+                .name("product " + productId)
+                .weight(1)
+                .reviewSummaries(List.of(new ReviewSummaryDTO(1L, "author", "subject", "content")))
+                .recommendationSummaries(List.of(new RecommendationSummaryDTO(1L, "author", 5, "content")))
+                .build();
+    }
+
+    private static ReviewDTO buildReview(Long reviewId) {
+        return new ReviewDTO(reviewId, 1L, "author", "subject", "content", "review/10.0.0.2:7002");
+    }
+
+    private static ProductDTO buildProduct(Long productId) {
+        return new ProductDTO(productId, "product " + productId, 1, "product/10.0.0.1:7001");
+    }
+}
@@ -0,0 +1,109 @@
+package com.microservices.core.product.orchestration.service.remote;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRequestHedgerTest {
+
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(50);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductRequestHedger productRequestHedger;
+
+    @BeforeEach
+    void setUp() {
+        productRequestHedger = new ProductRequestHedger();
+        ReflectionTestUtils.setField(productRequestHedger, "enabled", true);
+        ReflectionTestUtils.setField(productRequestHedger, "fixedDelay", HEDGE_DELAY);
+        ReflectionTestUtils.setField(productRequestHedger, "percentile", 0.95);
+        ReflectionTestUtils.setField(productRequestHedger, "minDelay", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(productRequestHedger, "maxDelay", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(productRequestHedger, "minSamples", 100L);
+        ReflectionTestUtils.setField(productRequestHedger, "meterRegistry", meterRegistry);
+        productRequestHedger.init();
+    }
+
+    @Test
+    void fastRequestIsNotHedgedTest() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(productRequestHedger.hedge(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.just("first");
+                }))
+                .expectNext("first")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.get(ProductRequestHedger.HEDGE_FIRED_COUNTER).counter().count());
+    }
+
+    @Test
+    void slowRequestIsHedgedTest() {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean firstCancelled = new AtomicBoolean(false);
+
+        StepVerifier.create(productRequestHedger.hedge(() -> attempts.getAndIncrement() == 0
+                        ? Mono.<String>never().doOnCancel(() -> firstCancelled.set(true))
+                        : Mono.just("hedged")))
+                .expectNext("hedged")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertTrue(firstCancelled.get());
+        assertEquals(1, meterRegistry.get(ProductRequestHedger.HEDGE_FIRED_COUNTER).counter().count());
+        assertEquals(1, meterRegistry.get(ProductRequestHedger.HEDGE_WON_COUNTER).counter().count());
+    }
+
+    @Test
+    void firstRequestWinsAfterHedgeTest() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(productRequestHedger.hedge(() -> attempts.getAndIncrement() == 0
+                        ? Mono.just("first").delayElement(HEDGE_DELAY.multipliedBy(2))
+                        : Mono.never()))
+                .expectNext("first")
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get(ProductRequestHedger.HEDGE_FIRED_COUNTER).counter().count());
+        assertEquals(0, meterRegistry.get(ProductRequestHedger.HEDGE_WON_COUNTER).counter().count());
+    }
+
+    @Test
+    void fastFailureIsNotHedgedTest() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(productRequestHedger.hedge(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(new IllegalStateException("Product service unavailable"));
+                }))
+                .verifyError(IllegalStateException.class);
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.get(ProductRequestHedger.HEDGE_FIRED_COUNTER).counter().count());
+    }
+
+    @Test
+    void bothAttemptsFailTest() {
+        StepVerifier.create(productRequestHedger.hedge(() -> Mono.<String>error(new IllegalStateException("Product service unavailable")).delaySubscription(HEDGE_DELAY.multipliedBy(2))))
+                .verifyError(IllegalStateException.class);
+    }
+
+    @Test
+    void hedgeDelayWithoutSamplesTest() {
+        ReflectionTestUtils.setField(productRequestHedger, "fixedDelay", null);
+
+        assertEquals(Duration.ofMillis(500), productRequestHedger.getHedgeDelay());
+    }
+}
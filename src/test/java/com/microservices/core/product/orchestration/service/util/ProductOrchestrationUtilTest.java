@@ -0,0 +1,107 @@
+package com.microservices.core.product.orchestration.service.util;
+
+import com.microservices.core.product.orchestration.service.config.SmileCodecConfig;
+import com.microservices.core.product.orchestration.service.dto.ProductAggregateDTO;
+import com.microservices.core.product.orchestration.service.dto.ReviewSummaryDTO;
+import com.microservices.core.product.orchestration.service.dto.ServiceAddressesDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.PageDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductOrchestrationUtilTest {
+
+    @Test
+    void buildBatchesBySizeTest() {
+        List<List<Integer>> batches = ProductOrchestrationUtil.buildBatches(List.of(1, 2, 3, 4, 5), 2, Integer.MAX_VALUE, item -> 1);
+
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), batches);
+    }
+
+    @Test
+    void buildBatchesByBytesTest() {
+        List<List<Integer>> batches = ProductOrchestrationUtil.buildBatches(List.of(1, 2, 3, 4), 10, 250, item -> 100);
+
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4)), batches);
+    }
+
+    @Test
+    void buildBatchesOversizedItemTest() {
+        List<List<Integer>> batches = ProductOrchestrationUtil.buildBatches(List.of(1, 2, 3), 10, 250, item -> item == 2 ? 1000 : 100);
+
+        assertEquals(List.of(List.of(1), List.of(2), List.of(3)), batches);
+    }
+
+    @Test
+    void buildBatchesEmptyTest() {
+        assertTrue(ProductOrchestrationUtil.buildBatches(List.<Integer>of(), 10, 250, item -> 100).isEmpty());
+    }
+
+    @Test
+    void buildPageWithProbeElementTest() {
+        PageDTO<Integer> page = ProductOrchestrationUtil.buildPage(List.of(1, 2, 3), 10, 2, new HttpHeaders());
+
+        // The element beyond the limit only tells that there is a next page.
+        assertEquals(List.of(1, 2), page.items());
+        assertTrue(page.hasMore());
+        assertEquals(10, page.offset());
+        assertEquals(2, page.limit());
+    }
+
+    @Test
+    void buildLastPageTest() {
+        assertFalse(ProductOrchestrationUtil.buildPage(List.of(1, 2), 0, 2, new HttpHeaders()).hasMore());
+        assertFalse(ProductOrchestrationUtil.buildPage(List.of(), 0, 2, new HttpHeaders()).hasMore());
+    }
+
+    @Test
+    void buildPageTotalCountTest() {
+        HttpHeaders headers = new HttpHeaders();
+        assertNull(ProductOrchestrationUtil.buildPage(List.of(1), 0, 2, headers).totalCount());
+
+        headers.set(ProductOrchestrationUtil.TOTAL_COUNT_HEADER, " 42 ");
+        assertEquals(42L, ProductOrchestrationUtil.buildPage(List.of(1), 0, 2, headers).totalCount());
+
+        headers.set(ProductOrchestrationUtil.TOTAL_COUNT_HEADER, "many");
+        assertNull(ProductOrchestrationUtil.buildPage(List.of(1), 0, 2, headers).totalCount());
+    }
+
+    @Test
+    void getPageParamsTest() {
+        assertEquals("&offset=20&limit=11", ProductOrchestrationUtil.getPageParams(20, 11));
+    }
+
+    @Test
+    void hashAggregateContentTest() {
+        String contentHash = ProductOrchestrationUtil.hashAggregateContent(buildProductAggregate("product-1:8080", List.of(), "Great"));
+
+        assertEquals(contentHash, ProductOrchestrationUtil.hashAggregateContent(buildProductAggregate("product-2:8080", List.of("Stale review information, last updated 3 seconds ago"), "Great")));
+        assertNotEquals(contentHash, ProductOrchestrationUtil.hashAggregateContent(buildProductAggregate("product-1:8080", List.of(), "Bad")));
+        // Adjacent values do not shift into each other.
+        assertNotEquals(ProductOrchestrationUtil.hashAggregateContent(ProductAggregateDTO.builder().productId(1L).name("12").build()),
+                ProductOrchestrationUtil.hashAggregateContent(ProductAggregateDTO.builder().productId(11L).name("2").build()));
+    }
+
+    @Test
+    void buildAggregateETagTest() {
+        String eTag = ProductOrchestrationUtil.buildAggregateETag("hash", MediaType.APPLICATION_JSON);
+
+        assertEquals("\"hash-json\"", eTag);
+        assertNotEquals(eTag, ProductOrchestrationUtil.buildAggregateETag("hash", SmileCodecConfig.APPLICATION_SMILE));
+    }
+
+    private static ProductAggregateDTO buildProductAggregate(String productAddress, List<String> warnings, String reviewSubject) {
+        return ProductAggregateDTO.builder()
+                .productId(1L)
+                .name("name")
+                .weight(1)
+                .reviewSummaries(List.of(ReviewSummaryDTO.builder().reviewId(1L).author("author").subject(reviewSubject).content("content").build()))
+                .serviceAddresses(ServiceAddressesDTO.builder().productAddress(productAddress).orchestrationAddress(productAddress).build())
+                .warnings(warnings)
+                .build();
+    }
+}
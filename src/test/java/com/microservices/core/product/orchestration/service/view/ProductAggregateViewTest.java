@@ -0,0 +1,155 @@
+package com.microservices.core.product.orchestration.service.view;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.core.product.orchestration.service.remote.dto.ProductDTO;
+import com.microservices.core.product.orchestration.service.remote.dto.ReviewDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductAggregateViewTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductAggregateView productAggregateView;
+
+    private AggregateViewEventConsumer aggregateViewEventConsumer;
+
+    @BeforeEach
+    void setUp() {
+        productAggregateView = new ProductAggregateView();
+        ReflectionTestUtils.setField(productAggregateView, "enabled", true);
+        ReflectionTestUtils.setField(productAggregateView, "maxStaleness", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(productAggregateView, "maxWeightBytes", 1_000_000L);
+        ReflectionTestUtils.setField(productAggregateView, "meterRegistry", meterRegistry);
+        productAggregateView.init();
+
+        BindingServiceProperties bindingServiceProperties = new BindingServiceProperties();
+        bindingServiceProperties.setBindings(Map.of(
+                "products-out-0", buildBinding("products"),
+                "reviews-out-0", buildBinding("reviews"),
+                "recommendations-out-0", buildBinding("recommendations")));
+
+        aggregateViewEventConsumer = new AggregateViewEventConsumer();
+        ReflectionTestUtils.setField(aggregateViewEventConsumer, "productAggregateView", productAggregateView);
+        ReflectionTestUtils.setField(aggregateViewEventConsumer, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(aggregateViewEventConsumer, "bindingServiceProperties", bindingServiceProperties);
+        ReflectionTestUtils.setField(aggregateViewEventConsumer, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void eventsUpdateSeededEntryTest() {
+        productAggregateView.put(1L, buildProduct(1L), List.of(buildReview(1L, 2L)), List.of());
+
+        consume("reviews", """
+                {"eventType":"CREATE","key":1,"data":[{"reviewId":1,"productId":1,"author":"a","subject":"s","content":"c"}]}""");
+        consume("reviews", """
+                {"eventType":"CREATE","key":1,"data":{"reviewId":2,"productId":1,"author":"b","subject":"s","content":"c"}}""");
+
+        ProductAggregateView.Entry entry = productAggregateView.get(1L);
+        assertEquals(List.of(1L, 2L), entry.reviews().stream().map(ReviewDTO::reviewId).toList());
+        assertEquals("b", entry.reviews().get(1).author());
+
+        consume("recommendations", """
+                {"eventType":"CREATE","key":1,"data":{"recommendationId":5,"productId":1,"author":"a","rating":3,"content":"c"}}""");
+        assertEquals(1, productAggregateView.get(1L).recommendations().size());
+
+        consume("reviews", """
+                {"eventType":"DELETE","key":1}""");
+        assertTrue(productAggregateView.get(1L).reviews().isEmpty());
+
+        consume("products", """
+                {"eventType":"DELETE","key":1}""");
+        assertNull(productAggregateView.get(1L));
+
+        assertEquals(5, meterRegistry.get(AggregateViewEventConsumer.EVENTS_COUNTER).tag("outcome", "applied").counters().stream().mapToDouble(counter -> counter.count()).sum());
+    }
+
+    @Test
+    void productCreatedEventDoesNotSeedEntryTest() {
+        // The review event may arrive before the product event, an entry seeded by the product event would miss it.
+        consume("reviews", """
+                {"eventType":"CREATE","key":2,"data":{"reviewId":1,"productId":2,"author":"a","subject":"s","content":"c"}}""");
+        consume("products", """
+                {"eventType":"CREATE","key":2,"data":{"productId":2,"name":"Product 2","weight":10}}""");
+
+        assertNull(productAggregateView.get(2L));
+    }
+
+    @Test
+    void eventsForUnknownProductAreIgnoredTest() {
+        consume("reviews", """
+                {"eventType":"CREATE","key":3,"data":{"reviewId":1,"productId":3,"author":"a","subject":"s","content":"c"}}""");
+
+        assertNull(productAggregateView.get(3L));
+    }
+
+    @Test
+    void malformedEventIsCountedTest() {
+        consume("reviews", "not json");
+
+        assertEquals(1, meterRegistry.get(AggregateViewEventConsumer.EVENTS_COUNTER).tag("outcome", "error").counter().count());
+    }
+
+    @Test
+    void staleEntryIsDroppedTest() throws InterruptedException {
+        ReflectionTestUtils.setField(productAggregateView, "maxStaleness", Duration.ofMillis(50));
+        productAggregateView.init();
+
+        productAggregateView.put(1L, buildProduct(1L), List.of(), List.of());
+        assertNotNull(productAggregateView.get(1L));
+
+        Thread.sleep(100);
+
+        assertNull(productAggregateView.get(1L));
+    }
+
+    @Test
+    void eventsDoNotExtendStalenessTest() throws InterruptedException {
+        ReflectionTestUtils.setField(productAggregateView, "maxStaleness", Duration.ofMillis(200));
+        productAggregateView.init();
+
+        productAggregateView.put(1L, buildProduct(1L), List.of(), List.of());
+        Thread.sleep(120);
+
+        consume("reviews", """
+                {"eventType":"CREATE","key":1,"data":{"reviewId":1,"productId":1,"author":"a","subject":"s","content":"c"}}""");
+        assertEquals(1, productAggregateView.get(1L).reviews().size());
+
+        Thread.sleep(120);
+
+        assertNull(productAggregateView.get(1L));
+    }
+
+    private void consume(String topic, String payload) {
+        aggregateViewEventConsumer.accept(MessageBuilder.withPayload(payload.getBytes(StandardCharsets.UTF_8))
+                .setHeader(KafkaHeaders.RECEIVED_TOPIC, topic)
+                .build());
+    }
+
+    private static BindingProperties buildBinding(String destination) {
+        BindingProperties bindingProperties = new BindingProperties();
+        bindingProperties.setDestination(destination);
+        return bindingProperties;
+    }
+
+    private static ProductDTO buildProduct(Long productId) {
+        return new ProductDTO(productId, "Product " + productId, 100, "product-service");
+    }
+
+    private static ReviewDTO buildReview(Long productId, Long reviewId) {
+        return new ReviewDTO(reviewId, productId, "Author " + reviewId, "Subject", "Content", "review-service");
+    }
+}